@@ -0,0 +1,75 @@
+package com.example.todoapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite le nombre de requêtes traitées en même temps en mode threads virtuels.
+ *
+ * Avec spring.threads.virtual.enabled=true, Tomcat crée un thread virtuel par requête
+ * sans plafond : sous une rafale, des milliers de requêtes attendraient une connexion
+ * du pool Hikari jusqu'à son timeout (30 s) avant d'échouer. Ce filtre rétablit une
+ * borne (server.virtual-threads.max-concurrent-requests) : au-delà, la requête attend
+ * au plus acquire-timeout-ms puis reçoit un 503 avec Retry-After.
+ *
+ * Le permis est rendu dès que le thread de requête sort du filtre : un flux SSE ou un
+ * export asynchrone ne le garde pas pendant toute sa durée.
+ *
+ * Inactif en mode threads plateforme, où le pool de Tomcat (server.tomcat.threads.max)
+ * joue déjà ce rôle. Placé juste après RequestLoggingFilter : un 503 porte un requestId.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    /**
+     * @param maxConcurrentRequests nombre maximal de requêtes traitées en même temps
+     * @param acquireTimeoutMs      attente maximale d'un permis avant de répondre 503
+     */
+    public ConcurrencyLimitFilter(
+            @Value("${server.virtual-threads.max-concurrent-requests:200}") int maxConcurrentRequests,
+            @Value("${server.virtual-threads.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Serveur surchargé, réessayez");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
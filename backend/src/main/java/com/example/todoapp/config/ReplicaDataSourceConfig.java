@@ -0,0 +1,111 @@
+package com.example.todoapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectures sur réplicas, activées par spring.datasource.replica.urls (URL JDBC séparées
+ * par des virgules, mêmes identifiants que le primaire).
+ *
+ * La DataSource de l'application ne prend une connexion qu'à la première requête SQL :
+ * celle d'une transaction readOnly = true vient de ReplicaRoutingDataSource, toutes les
+ * autres du primaire. Les écritures ne passent donc jamais par un réplica ; Flyway migre
+ * le primaire. Nécessite spring.jpa.open-in-view=false : sinon la connexion prise par la
+ * première lecture d'une requête HTTP resterait celle de ses écritures.
+ *
+ * Sans réplica configuré, cette classe est ignorée et Spring Boot crée le pool habituel.
+ */
+@Configuration
+@ConditionalOnExpression("!'${spring.datasource.replica.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Value("${spring.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${spring.datasource.replica.lag-query:}")
+    private String lagQuery;
+
+    @Value("${spring.datasource.replica.max-lag-ms:500}")
+    private long maxLagMs;
+
+    @Value("${spring.datasource.replica.check-interval-ms:1000}")
+    private long checkIntervalMs;
+
+    @Value("${spring.datasource.replica.sticky-ms:5000}")
+    private long stickyMs;
+
+    @Value("${spring.datasource.replica.connection-timeout-ms:500}")
+    private long connectionTimeoutMs;
+
+    @Value("${tasks.sync.overlap-ms:2000}")
+    private long syncOverlapMs;
+
+    /**
+     * Pool du primaire, configuré comme celui de Spring Boot (spring.datasource.*).
+     */
+    @Bean(defaultCandidate = false)
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Un pool par réplica, réglé comme le primaire, avec des connexions en lecture seule
+     * et un délai d'obtention court : un réplica injoignable renvoie vite au primaire.
+     */
+    @Bean(defaultCandidate = false)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+        // Un écrivain doit rester sur le primaire tant qu'un réplica peut être en retard
+        // (max-lag-ms, mesuré toutes les check-interval-ms), et le delta de synchronisation
+        // doit recouvrir ce retard (tasks.sync.overlap-ms)
+        long worstLagMs = maxLagMs + checkIntervalMs;
+        if (stickyMs <= worstLagMs || syncOverlapMs <= worstLagMs) {
+            throw new IllegalStateException("spring.datasource.replica.sticky-ms (" + stickyMs
+                    + ") et tasks.sync.overlap-ms (" + syncOverlapMs
+                    + ") doivent dépasser max-lag-ms + check-interval-ms (" + worstLagMs + ")");
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i).trim());
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setInitializationFailTimeout(-1); // démarrage possible réplica arrêté
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagMs, stickyMs,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaRoutingDataSource") ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
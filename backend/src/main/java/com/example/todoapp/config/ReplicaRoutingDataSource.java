@@ -0,0 +1,225 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.security.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source des connexions des transactions en lecture seule quand des réplicas sont
+ * configurés (voir ReplicaDataSourceConfig) : un réplica disponible, à tour de rôle,
+ * sinon le primaire.
+ *
+ * La lecture reste sur le primaire :
+ * - si l'utilisateur connecté a modifié ses tâches (TaskEvent) depuis moins de sticky-ms :
+ *   il relit ce qu'il vient d'écrire même si les réplicas sont en retard ;
+ * - si aucun réplica n'est disponible : injoignable, ou en retard de plus de max-lag-ms
+ *   au dernier contrôle (toutes les check-interval-ms).
+ *
+ * Un réplica qui refuse une connexion est écarté jusqu'au prochain contrôle réussi.
+ *
+ * Métriques : datasource.reads (target=replica ou primary, reason=replica, sticky ou
+ * unavailable), datasource.replica.lag et datasource.replica.available par réplica.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final Cache<Long, Boolean> recentWriters; // userId -> présent pendant sticky-ms
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter unavailableReads;
+
+    /**
+     * @param primary       pool du primaire
+     * @param replicas      pools des réplicas (connexions en lecture seule)
+     * @param lagQuery      requête renvoyant le retard du réplica en ms, vide pour ne vérifier que la connexion
+     * @param maxLagMs      retard au-delà duquel un réplica n'est plus utilisé
+     * @param stickyMs      durée pendant laquelle un utilisateur qui vient d'écrire lit sur le primaire
+     * @param meterRegistry registre des métriques
+     */
+    ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, String lagQuery,
+                             long maxLagMs, long stickyMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .build();
+        this.replicaReads = readCounter("replica", "replica", meterRegistry);
+        this.stickyReads = readCounter("primary", "sticky", meterRegistry);
+        this.unavailableReads = readCounter("primary", "unavailable", meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Retard du réplica mesuré au dernier contrôle")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable(maxLagMs) ? 1 : 0)
+                    .description("1 si le réplica reçoit des lectures")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Counter readCounter(String target, String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("datasource.reads")
+                .description("Connexions des transactions en lecture seule, par base servie")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long userId = currentUserId();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isAvailable(maxLagMs)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        unavailableReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Identifiants fixés par la configuration des pools");
+    }
+
+    /**
+     * Lecture sur le primaire pour l'auteur et le propriétaire d'une modification de
+     * tâches. Appelé avant le commit (ou tout de suite hors transaction), et avant
+     * TaskListCache : une liste rechargée après l'invalidation vient du primaire.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        if (event.getUserId() != null) {
+            recentWriters.put(event.getUserId(), Boolean.TRUE);
+        }
+        Long actorId = currentUserId();
+        if (actorId != null) {
+            recentWriters.put(actorId, Boolean.TRUE); // admin modifiant la tâche d'un autre
+        }
+    }
+
+    /**
+     * Contrôle périodique de chaque réplica : connexion, puis retard (lag-query).
+     */
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check(lagQuery, maxLagMs);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+                ? user.getId()
+                : null;
+    }
+
+    /**
+     * Un réplica et son état au dernier contrôle. Indisponible jusqu'au premier contrôle réussi.
+     */
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private final String name;
+        private volatile boolean up;
+        private volatile long lagMs;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.name = dataSource.getPoolName();
+        }
+
+        private boolean isAvailable(long maxLagMs) {
+            return up && lagMs <= maxLagMs;
+        }
+
+        private void check(String lagQuery, long maxLagMs) {
+            boolean wasAvailable = isAvailable(maxLagMs);
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                long lag = 0;
+                if (lagQuery != null && !lagQuery.isBlank()) {
+                    try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                        lag = rs.next() ? Math.round(rs.getDouble(1)) : 0;
+                    }
+                }
+                lagMs = lag;
+                up = true;
+            } catch (SQLException e) {
+                up = false;
+                if (wasAvailable) {
+                    log.warn("Réplica {} écarté, lectures sur le primaire : {}", name, e.getMessage());
+                }
+                return;
+            }
+            if (wasAvailable && lagMs > maxLagMs) {
+                log.warn("Réplica {} écarté : retard de {} ms", name, lagMs);
+            } else if (!wasAvailable && isAvailable(maxLagMs)) {
+                log.info("Réplica {} disponible (retard {} ms)", name, lagMs);
+            }
+        }
+
+        private void markDown(SQLException e) {
+            if (up) {
+                up = false;
+                log.warn("Réplica {} écarté, lectures sur le primaire : {}", name, e.getMessage());
+            }
+        }
+    }
+}
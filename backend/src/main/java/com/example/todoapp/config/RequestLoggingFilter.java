@@ -0,0 +1,93 @@
+package com.example.todoapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Identifiant de corrélation et journal échantillonné des requêtes.
+ *
+ * Chaque requête reçoit un identifiant (repris de l'en-tête X-Request-Id s'il est valide,
+ * sinon généré), renvoyé dans la réponse et placé dans le MDC : toutes les lignes de log
+ * écrites pendant la requête le portent (champ requestId).
+ *
+ * Une ligne par requête est écrite pour une fraction logging.requests.sample-rate des
+ * requêtes, et toujours pour les erreurs serveur (5xx) et les requêtes plus lentes que
+ * logging.requests.slow-ms. Elle ne contient ni en-têtes ni paramètres (tokens, codes
+ * OAuth) : méthode, chemin, statut, durée, utilisateur.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
+    public static final String MDC_USER_ID = "userId"; // renseigné par JwtAuthenticationFilter
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    // Identifiant fourni par un proxy ou le client : borné, sans caractère de contrôle
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final double sampleRate;
+    private final long slowMs;
+
+    /**
+     * @param sampleRate fraction des requêtes journalisées (0 à 1)
+     * @param slowMs     durée au-delà de laquelle une requête est toujours journalisée
+     */
+    public RequestLoggingFilter(@Value("${logging.requests.sample-rate:0.01}") double sampleRate,
+                                @Value("${logging.requests.slow-ms:1000}") long slowMs) {
+        this.sampleRate = sampleRate;
+        this.slowMs = slowMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+        }
+        MDC.put(MDC_REQUEST_ID, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int status = response.getStatus();
+            if (log.isInfoEnabled() && shouldLog(status, durationMs)) {
+                log.atInfo()
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("status", status)
+                        .addKeyValue("durationMs", durationMs)
+                        .log("{} {} -> {} ({} ms)", request.getMethod(), request.getRequestURI(), status, durationMs);
+            }
+            MDC.remove(MDC_REQUEST_ID);
+            MDC.remove(MDC_USER_ID);
+        }
+    }
+
+    private boolean shouldLog(int status, long durationMs) {
+        return status >= 500
+                || durationMs >= slowMs
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
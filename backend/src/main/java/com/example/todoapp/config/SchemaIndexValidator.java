@@ -0,0 +1,102 @@
+package com.example.todoapp.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vérifie au démarrage que les index déclarés sur les entités (@Table(indexes)) existent
+ * en base, avec les mêmes colonnes, dans le même ordre, et la même unicité.
+ *
+ * Le schéma appartient aux migrations Flyway (db/migration). ddl-auto=validate contrôle
+ * les tables et les colonnes mais pas les index : une migration qui oublie ou modifie
+ * un index d'un chemin d'accès déclaré empêche ici l'application de démarrer.
+ * La comparaison porte sur les colonnes, pas sur le nom de l'index.
+ */
+@Component
+public class SchemaIndexValidator {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // garantit que les migrations sont passées
+
+    @PostConstruct
+    public void validateIndexes() throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || table.indexes().length == 0) {
+                    continue;
+                }
+                ExistingIndexes existing = readIndexes(connection, metaData, table.name());
+                for (Index index : table.indexes()) {
+                    List<String> columns = Arrays.stream(index.columnList().split(","))
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .toList();
+                    if (!existing.contains(columns, index.unique())) {
+                        missing.add(table.name() + "." + index.name() + " (" + String.join(", ", columns)
+                                + (index.unique() ? ", unique" : "") + ")");
+                    }
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Index absents ou différents en base, une migration manque : " + missing);
+        }
+    }
+
+    private static ExistingIndexes readIndexes(Connection connection, DatabaseMetaData metaData,
+                                               String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+        Set<String> unique = new HashSet<>();
+        // Lignes triées par index puis par position de colonne (contrat JDBC)
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                tableName, false, false)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue; // statistiques de table, ou index sur expression
+                }
+                columnsByIndex.computeIfAbsent(indexName, name -> new ArrayList<>())
+                        .add(column.toLowerCase(Locale.ROOT));
+                if (!rs.getBoolean("NON_UNIQUE")) {
+                    unique.add(indexName);
+                }
+            }
+        }
+        return new ExistingIndexes(columnsByIndex, unique);
+    }
+
+    private record ExistingIndexes(Map<String, List<String>> columnsByIndex, Set<String> unique) {
+
+        boolean contains(List<String> columns, boolean requireUnique) {
+            return columnsByIndex.entrySet().stream()
+                    .anyMatch(index -> index.getValue().equals(columns)
+                            && (!requireUnique || unique.contains(index.getKey())));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.payload.BatchItemResult;
+import com.example.todoapp.payload.TaskDeltaResponse;
+import com.example.todoapp.payload.TaskPageResponse;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.UserPageResponse;
+import com.example.todoapp.payload.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Convertisseurs HTTP des formats de WireFormats.
+ *
+ * Le JSON compact passe par le convertisseur JSON habituel, avec un second ObjectMapper
+ * pour son type de média : un convertisseur séparé serait en concurrence avec celui-ci,
+ * qui accepte tous les application/*+json. Sans en-tête Accept, ou avec un joker,
+ * application/json reste le format choisi.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    // Réponses contenant des tâches ; les autres (erreurs, messages) restent en JSON habituel
+    private static final List<Class<?>> COMPACT_TYPES = List.of(Collection.class, TaskResponse.class,
+            TaskPageResponse.class, TaskDeltaResponse.class, BatchItemResult.class, UserResponse.class,
+            UserPageResponse.class);
+
+    /**
+     * Remplace le convertisseur JSON de Spring Boot (même ObjectMapper) en y ajoutant
+     * le JSON compact.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   WireFormats wireFormats) {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        for (Class<?> type : COMPACT_TYPES) {
+            converter.registerObjectMappersForType(type, mappers -> {
+                mappers.put(MediaType.APPLICATION_JSON, objectMapper); // en premier : format par défaut
+                mappers.put(WireFormats.COMPACT_JSON, wireFormats.getCompactJsonMapper());
+            });
+        }
+        return converter;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(WireFormats wireFormats) {
+        return new MappingJackson2CborHttpMessageConverter(wireFormats.getCborMapper());
+    }
+}
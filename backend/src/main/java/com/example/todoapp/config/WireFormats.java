@@ -0,0 +1,168 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.payload.TaskPageResponse;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.UserResponse;
+import com.example.todoapp.security.UserDetailsImpl;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Formats de réponse compacts, choisis par le client via l'en-tête Accept :
+ *
+ * - application/json : format habituel, inchangé (dates ISO-8601)
+ * - application/vnd.priorito.compact+json : JSON compact
+ * - application/cbor : même contenu que le JSON compact, encodé en CBOR (RFC 8949)
+ *
+ * Profil compact : dates en millisecondes depuis l'epoch (fuseau du serveur), champs
+ * null omis, userId d'une tâche omis quand il est implicite (tâche de l'utilisateur
+ * connecté, ou tâche imbriquée dans le UserResponse de son propriétaire), hasNext
+ * d'une page omis (nextCursor != null).
+ */
+@Component
+public class WireFormats {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.priorito.compact+json";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    private static final String IMPLIED_OWNER_FILTER = "impliedOwner";
+
+    private final ObjectMapper compactJsonMapper;
+    private final ObjectMapper cborMapper;
+
+    /**
+     * @param builders builders de Spring Boot (modules et réglages spring.jackson.*)
+     */
+    public WireFormats(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.compactJsonMapper = compact(builders.getObject()).build();
+        this.cborMapper = compact(builders.getObject()).factory(new CBORFactory()).build();
+    }
+
+    public ObjectMapper getCompactJsonMapper() { return compactJsonMapper; }
+    public ObjectMapper getCborMapper() { return cborMapper; }
+
+    /**
+     * Choisit le format d'une réponse écrite à la main (flux), d'après l'en-tête Accept :
+     * le format de plus haute qualité (q=), le premier cité à qualité égale. Un type
+     * générique (application/* ou n'importe quel type) désigne le JSON habituel.
+     *
+     * @param accept valeur de l'en-tête Accept, éventuellement null
+     * @return CBOR ou JSON compact s'il est préféré explicitement, JSON sinon
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = MediaType.APPLICATION_JSON;
+        double bestQuality = -1;
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            MediaType format = mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) ? MediaType.APPLICATION_CBOR
+                    : mediaType.equalsTypeAndSubtype(COMPACT_JSON) ? COMPACT_JSON
+                    : mediaType.includes(MediaType.APPLICATION_JSON) ? MediaType.APPLICATION_JSON
+                    : null;
+            if (format != null && mediaType.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = mediaType.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * ObjectMapper d'un format négocié.
+     *
+     * @param mediaType format renvoyé par negotiate
+     * @param json      ObjectMapper du JSON habituel
+     * @return ObjectMapper à utiliser
+     */
+    public ObjectMapper mapperFor(MediaType mediaType, ObjectMapper json) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+            return cborMapper;
+        }
+        return COMPACT_JSON.equalsTypeAndSubtype(mediaType) ? compactJsonMapper : json;
+    }
+
+    private static Jackson2ObjectMapperBuilder compact(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .serializerByType(LocalDateTime.class, new EpochMillisSerializer())
+                .mixIn(TaskResponse.class, CompactTaskResponse.class)
+                .mixIn(TaskPageResponse.class, CompactTaskPageResponse.class)
+                .filters(new SimpleFilterProvider().addFilter(IMPLIED_OWNER_FILTER, new ImpliedOwnerFilter()));
+    }
+
+    @JsonFilter(IMPLIED_OWNER_FILTER)
+    private abstract static class CompactTaskResponse {
+    }
+
+    private abstract static class CompactTaskPageResponse {
+        @JsonIgnore
+        abstract boolean isHasNext();
+    }
+
+    /**
+     * LocalDateTime en millisecondes depuis l'epoch, dans le fuseau où il a été produit
+     * (Task.now() utilise le fuseau du serveur).
+     */
+    private static final class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+
+        private EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * N'écrit pas le userId d'une tâche s'il est déjà connu du client : id du UserResponse
+     * englobant, ou, à défaut, id de l'utilisateur connecté.
+     */
+    private static final class ImpliedOwnerFilter extends SimpleBeanPropertyFilter {
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (pojo instanceof TaskResponse task && "userId".equals(writer.getName())
+                    && Objects.equals(task.getUserId(), impliedOwner(gen.getOutputContext()))) {
+                return;
+            }
+            writer.serializeAsField(pojo, gen, provider);
+        }
+
+        private static Long impliedOwner(JsonStreamContext context) {
+            for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.getCurrentValue() instanceof UserResponse user) {
+                    return user.getId();
+                }
+            }
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+                    ? user.getId()
+                    : null;
+        }
+    }
+}
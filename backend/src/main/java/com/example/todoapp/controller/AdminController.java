@@ -1,17 +1,36 @@
 package com.example.todoapp.controller;
 
+import com.example.todoapp.config.WireFormats;
 import com.example.todoapp.model.Task;
 import com.example.todoapp.model.User;
 import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.TaskStatsResponse;
+import com.example.todoapp.payload.UserPageResponse;
 import com.example.todoapp.payload.UserResponse;
 import com.example.todoapp.repository.TaskRepository;
 import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.UserDetailsImpl;
+import com.example.todoapp.service.TaskBatchService;
+import com.example.todoapp.service.TaskEventBus;
+import com.example.todoapp.service.TaskExportService;
+import com.example.todoapp.service.TaskFileFormat;
+import com.example.todoapp.service.TaskStats;
+import com.example.todoapp.service.TaskSyncService;
+import com.example.todoapp.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -19,23 +38,148 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')") // Tous les endpoints ici sont réservés aux admins
 public class AdminController {
 
+    // Nombre d'utilisateurs chargés par lot (2 requêtes SQL par lot)
+    private static final int USER_PAGE_SIZE = 500;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskEventBus taskEventBus;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private TaskStats taskStats;
+
+    @Autowired
+    private WireFormats wireFormats;
+
+    @Autowired
+    private UserService userService;
+
     /**
      * Récupère la liste complète des utilisateurs avec leurs informations essentielles.
      *
-     * @return liste des utilisateurs transformée en UserResponse
+     * La réponse est un tableau JSON écrit au fil de l'eau : les utilisateurs sont lus
+     * par lots de 500 (un SELECT users + un SELECT tasks par lot), sérialisés puis oubliés,
+     * la mémoire reste donc bornée quel que soit le nombre d'utilisateurs.
+     * Format JSON, JSON compact ou CBOR selon l'en-tête Accept (voir WireFormats).
+     *
+     * @param countsOnly si true, renvoie uniquement le nombre de tâches de chaque utilisateur
+     * @param accept formats acceptés par le client
+     * @return flux des utilisateurs transformés en UserResponse
      */
     @GetMapping("/users")
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @RequestParam(defaultValue = "false") boolean countsOnly,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType mediaType = wireFormats.negotiate(accept);
+        ObjectMapper mapper = wireFormats.mapperFor(mediaType, objectMapper);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.createGenerator(out)) {
+                generator.writeStartArray();
+                long afterId = 0;
+                List<UserResponse> page;
+                do {
+                    page = loadUserPage(afterId, USER_PAGE_SIZE, countsOnly);
+                    for (UserResponse user : page) {
+                        generator.writeObject(user);
+                    }
+                    generator.flush();
+                    if (!page.isEmpty()) {
+                        afterId = page.get(page.size() - 1).getId();
+                    }
+                } while (page.size() == USER_PAGE_SIZE);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    /**
+     * Récupère une page d'utilisateurs (pagination par clé sur l'id).
+     *
+     * @param size nombre d'utilisateurs par page (1 à 500)
+     * @param cursor id du dernier utilisateur de la page précédente, 0 pour la première page
+     * @param countsOnly si true, renvoie uniquement le nombre de tâches de chaque utilisateur
+     * @return la page d'utilisateurs et le curseur de la page suivante
+     */
+    @GetMapping(value = "/users", params = "size")
+    public UserPageResponse getUsersPage(@RequestParam int size,
+                                         @RequestParam(defaultValue = "0") long cursor,
+                                         @RequestParam(defaultValue = "false") boolean countsOnly) {
+        int limit = Math.max(1, Math.min(size, USER_PAGE_SIZE));
+        List<UserResponse> users = loadUserPage(cursor, limit, countsOnly);
+        Long nextCursor = users.size() == limit ? users.get(users.size() - 1).getId() : null;
+        return new UserPageResponse(users, nextCursor);
+    }
+
+    /**
+     * Charge un lot d'utilisateurs et leurs tâches (ou leurs compteurs)
+     * en deux requêtes de projection, sans entité User ni Task.
+     */
+    private List<UserResponse> loadUserPage(long afterId, int size, boolean countsOnly) {
+        List<UserRepository.UserSummary> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size));
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<Long> userIds = users.stream().map(UserRepository.UserSummary::getId).toList();
+
+        if (countsOnly) {
+            Map<Long, Long> counts = taskRepository.countByUserIds(userIds)
+                    .stream()
+                    .collect(Collectors.toMap(TaskRepository.UserTaskCount::getUserId,
+                            TaskRepository.UserTaskCount::getCount));
+            return users.stream()
+                    .map(user -> new UserResponse(user.getId(), user.getUsername(), user.getRole(),
+                            counts.getOrDefault(user.getId(), 0L)))
+                    .toList();
+        }
+
+        Map<Long, List<TaskResponse>> tasksByUser = taskRepository.findByUserIdInOrderByIdAsc(userIds)
                 .stream()
-                .map(UserResponse::new) // Conversion vers DTO pour ne pas exposer toutes les infos sensibles
-                .collect(Collectors.toList());
+                .collect(Collectors.groupingBy(TaskResponse::getUserId));
+        return users.stream()
+                .map(user -> new UserResponse(user.getId(), user.getUsername(), user.getRole(),
+                        tasksByUser.getOrDefault(user.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Statistiques globales des tâches : totaux, ouvertes et terminées par priorité,
+     * répartition des utilisateurs par nombre de tâches, durées de complétion.
+     * Lues dans les compteurs tenus à jour par TaskStats, sans requête SQL.
+     *
+     * @return statistiques des tâches
+     */
+    @GetMapping("/stats")
+    public TaskStatsResponse getStats() {
+        return taskStats.snapshot();
+    }
+
+    /**
+     * Nombre de tâches ouvertes et terminées d'un utilisateur.
+     *
+     * @param id ID de l'utilisateur
+     * @return compteurs de l'utilisateur (à zéro s'il n'a aucune tâche)
+     */
+    @GetMapping("/stats/users/{id}")
+    public TaskStatsResponse.UserCounts getUserStats(@PathVariable Long id) {
+        return taskStats.user(id);
     }
 
     /**
@@ -43,14 +187,12 @@ public class AdminController {
      * Empêche l'admin courant de se supprimer lui-même.
      *
      * @param id ID de l'utilisateur à supprimer
-     * @param authentication info sur l'utilisateur courant
+     * @param currentUser l'administrateur connecté
      * @return réponse HTTP avec message
      */
     @DeleteMapping("/users/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication authentication) {
-        User currentUser = userRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("Utilisateur actuel introuvable"));
-
+    public ResponseEntity<?> deleteUser(@PathVariable Long id,
+                                        @AuthenticationPrincipal UserDetailsImpl currentUser) {
         // Sécurité : un admin ne peut pas se supprimer lui-même
         if (currentUser.getId().equals(id)) {
             return ResponseEntity
@@ -58,7 +200,8 @@ public class AdminController {
                     .body("Un administrateur ne peut pas se supprimer lui-même !");
         }
 
-        userRepository.deleteById(id);
+        // Une transaction ; statistiques, caches, SSE et révocation des JWT après le commit
+        userService.deleteUser(id);
         return ResponseEntity.ok("Utilisateur supprimé !");
     }
 
@@ -70,11 +213,34 @@ public class AdminController {
      */
     @DeleteMapping("/tasks/{id}")
     public String deleteAnyTask(@PathVariable Long id) {
-        Task task = taskRepository.findById(id).orElseThrow();
-        taskRepository.delete(task);
+        // Lecture verrouillée puis un DELETE, sans charger la tâche (plus la trace pour la synchronisation delta)
+        taskSyncService.deleteAny(id);
         return "Tâche supprimée !";
     }
 
+    /**
+     * Flux Server-Sent Events des changements de toutes les tâches, tous utilisateurs confondus.
+     *
+     * @return flux SSE
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllTaskEvents() {
+        return taskEventBus.subscribeAll();
+    }
+
+    /**
+     * Exporte les tâches de tous les utilisateurs en CSV ou NDJSON, écrites en flux.
+     *
+     * @param format csv ou ndjson
+     * @return fichier d'export
+     */
+    @GetMapping("/tasks/export")
+    public ResponseEntity<StreamingResponseBody> exportAllTasks(@RequestParam(defaultValue = "ndjson") String format) {
+        TaskFileFormat fileFormat = TaskController.parseFormat(format);
+        StreamingResponseBody body = out -> taskExportService.exportAllTasks(fileFormat, out);
+        return TaskController.exportResponse(fileFormat, body);
+    }
+
     /**
      * Crée une tâche pour un utilisateur spécifique.
      * La tâche sera initialisée avec completed = false.
@@ -86,10 +252,6 @@ public class AdminController {
     public TaskResponse createTaskForUser(@RequestBody Task taskRequest) {
         User user = userRepository.findById(taskRequest.getUser().getId())
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-        taskRequest.setUser(user);
-        taskRequest.setCompleted(false);
-
-        Task savedTask = taskRepository.save(taskRequest);
-        return new TaskResponse(savedTask);
+        return taskBatchService.create(user, taskRequest);
     }
 }
@@ -4,11 +4,14 @@ import com.example.todoapp.model.User;
 import com.example.todoapp.payload.*;
 import com.example.todoapp.repository.UserRepository;
 import com.example.todoapp.security.JwtUtils;
+import com.example.todoapp.service.RefreshTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
-import java.util.UUID;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,6 +29,9 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     /**
      * Crée un nouvel utilisateur.
      *
@@ -46,7 +52,12 @@ public class AuthController {
         user.setEmail(req.getEmail());
         // Password encodé avant sauvegarde pour sécurité
         user.setPassword(passwordEncoder.encode(req.getPassword()));
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Inscription simultanée avec le même username ou email (index uniques)
+            return "Erreur: Identifiants déjà utilisés";
+        }
 
         return "Utilisateur créé avec succès!";
     }
@@ -67,37 +78,29 @@ public class AuthController {
         User user = userRepository.findByUsername(req.getUsername()).orElseThrow();
 
         String role = user.getRole().name(); // ADMIN ou USER
-        String accessToken = jwtUtils.generateJwtToken(user.getUsername(), role);
-        String refreshToken = UUID.randomUUID().toString();
-
-        // Sauvegarde le refresh token pour future utilisation
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        String accessToken = jwtUtils.generateJwtToken(user.getId(), user.getUsername(), role, user.getTokenVersion());
+        // Nouveau jeton pour cet appareil, les autres appareils restent connectés
+        String refreshToken = refreshTokenService.issue(user.getId());
 
         return new LoginResponse(accessToken, refreshToken, user.getUsername(), role);
     }
 
     /**
      * Rafraîchit le token d'un utilisateur en utilisant un refreshToken valide.
+     * Le refreshToken présenté est consommé et remplacé (rotation).
      *
      * @param req RefreshRequest contenant le refreshToken
      * @return nouveau LoginResponse avec accessToken et refreshToken
      */
     @PostMapping("/refresh")
     public LoginResponse refresh(@RequestBody RefreshRequest req) {
-        User user = userRepository.findByRefreshToken(req.getRefreshToken())
-                .orElseThrow(() -> new RuntimeException("Refresh token invalide"));
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(req.getRefreshToken());
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token invalide"));
 
         String role = user.getRole().name();
-        String accessToken = jwtUtils.generateJwtToken(user.getUsername(), role);
-        String newRefreshToken = UUID.randomUUID().toString();
+        String accessToken = jwtUtils.generateJwtToken(user.getId(), user.getUsername(), role, user.getTokenVersion());
 
-        // Remplace l'ancien refresh token par le nouveau
-        user.setRefreshToken(newRefreshToken);
-        userRepository.save(user);
-
-        return new LoginResponse(accessToken, newRefreshToken, user.getUsername(), role);
+        return new LoginResponse(accessToken, rotation.refreshToken(), user.getUsername(), role);
     }
 }
-
-
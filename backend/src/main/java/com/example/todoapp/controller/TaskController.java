@@ -2,22 +2,58 @@ package com.example.todoapp.controller;
 
 import com.example.todoapp.model.Task;
 import com.example.todoapp.model.User;
+import com.example.todoapp.payload.BatchItemResult;
+import com.example.todoapp.payload.SseTicketResponse;
+import com.example.todoapp.payload.TaskCursor;
+import com.example.todoapp.payload.TaskDeltaResponse;
+import com.example.todoapp.payload.TaskPageResponse;
 import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.TaskSort;
 import com.example.todoapp.repository.TaskRepository;
 import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtUtils;
 import com.example.todoapp.security.TaskSecurity;
+import com.example.todoapp.service.TaskBatchService;
+import com.example.todoapp.service.TaskEventBus;
+import com.example.todoapp.service.TaskExportService;
+import com.example.todoapp.service.TaskFileFormat;
+import com.example.todoapp.service.TaskImportService;
+import com.example.todoapp.service.TaskListCache;
+import com.example.todoapp.service.TaskPriorityIndex;
+import com.example.todoapp.service.TaskSearchService;
+import com.example.todoapp.service.TaskSyncService;
+import jakarta.servlet.http.HttpServletRequest;
 import com.example.todoapp.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    // Réponse propre à l'utilisateur, toujours revalidée (If-None-Match) avant réutilisation.
+    // Même ETag pour tous les formats (JSON, compact, CBOR) : Vary: Accept sépare les copies en cache
+    private static final CacheControl SYNC_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -27,21 +63,182 @@ public class TaskController {
     @Autowired
     private TaskSecurity taskSecurity;
 
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskEventBus taskEventBus;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskListCache taskListCache;
+
+    @Autowired
+    private TaskPriorityIndex taskPriorityIndex;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
     /**
      * Récupère toutes les tâches de l'utilisateur connecté.
      *
+     * La réponse porte un ETag (version de la liste) lu sans charger les tâches : si le client renvoie
+     * If-None-Match avec la même valeur, la liste n'a pas changé et la réponse est un
+     * 304 sans corps. Cache-Control: no-cache permet au navigateur de revalider seul.
+     * Liste et ETag sont gardés dans TaskListCache jusqu'à la prochaine écriture.
+     *
      * @param userDetails info de l'utilisateur connecté
-     * @return liste des tâches sous forme de TaskResponse
+     * @param request requête (en-tête If-None-Match)
+     * @return liste des tâches sous forme de TaskResponse, ou 304
      */
     @GetMapping
-    public List<TaskResponse> getTasks(@AuthenticationPrincipal UserDetailsImpl userDetails) {
-        User user = userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+    public ResponseEntity<List<TaskResponse>> getTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                       WebRequest request) {
+        Long userId = userDetails.getId();
+        TaskListCache.CachedList list = taskListCache.get(userId, () -> taskSyncService.list(userId));
+        if (request.checkNotModified(list.etag())) {
+            return notModified(list.etag());
+        }
+        return ResponseEntity.ok().eTag(list.etag()).cacheControl(SYNC_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT)
+                .body(list.tasks());
+    }
 
-        return taskRepository.findByUser(user)
-                .stream()
-                .map(TaskResponse::new)
-                .toList();
+    /**
+     * Synchronisation delta : tâches créées ou modifiées et ids des tâches supprimées
+     * depuis le watermark de la synchronisation précédente. ETag : version de la liste
+     * et watermark demandé.
+     *
+     * @param userDetails info de l'utilisateur connecté
+     * @param since watermark renvoyé par la réponse précédente
+     * @param request requête (en-tête If-None-Match)
+     * @return les changements et le nouveau watermark, ou 304
+     */
+    @GetMapping(params = "since")
+    public ResponseEntity<TaskDeltaResponse> getTaskChanges(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                            @RequestParam String since,
+                                                            WebRequest request) {
+        String etag;
+        TaskDeltaResponse delta;
+        try {
+            etag = taskSyncService.deltaEtag(userDetails.getId(), since);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            delta = taskSyncService.delta(userDetails.getId(), since);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(SYNC_CACHE_CONTROL).varyBy(HttpHeaders.ACCEPT).body(delta);
+    }
+
+    /**
+     * Récupère une page de tâches de l'utilisateur connecté par pagination par clé.
+     * Le filtrage et le tri sont faits en base, sur un index (user_id, completed, tri, id),
+     * ou (user_id, tri, id) sans filtre de statut.
+     * Les tâches sans titre sont triées comme un titre vide.
+     *
+     * @param userDetails info de l'utilisateur connecté
+     * @param size nombre de tâches par page (1 à 200)
+     * @param completed filtre optionnel sur le statut
+     * @param sort critère de tri : priority, title ou createdAt
+     * @param direction asc ou desc
+     * @param cursor curseur renvoyé par la page précédente, absent pour la première page
+     * @return la page de tâches et le curseur de la page suivante
+     */
+    @GetMapping(params = "size")
+    public TaskPageResponse getTasksPage(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                         @RequestParam int size,
+                                         @RequestParam(required = false) Boolean completed,
+                                         @RequestParam(defaultValue = "priority") String sort,
+                                         @RequestParam(defaultValue = "asc") String direction,
+                                         @RequestParam(required = false) String cursor) {
+        TaskSort taskSort;
+        Sort.Direction sortDirection;
+        TaskCursor taskCursor = null;
+        try {
+            taskSort = TaskSort.fromParam(sort);
+            sortDirection = Sort.Direction.fromString(direction);
+            if (cursor != null && !cursor.isBlank()) {
+                taskCursor = TaskCursor.decode(cursor);
+                if (!taskCursor.matches(taskSort, sortDirection)) {
+                    throw new IllegalArgumentException("Curseur émis pour un autre tri");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        Window<TaskResponse> window;
+        if (taskSort == TaskSort.TITLE) {
+            // Titre nullable : tri et reprise sur coalesce(title, '')
+            window = taskRepository.findByUserIdOrderByTitle(userDetails.getId(), completed, sortDirection,
+                    taskCursor != null ? (String) taskCursor.getKey() : null,
+                    taskCursor != null ? taskCursor.getId() : null, limit);
+        } else if (taskSort == TaskSort.PRIORITY) {
+            // Tri par défaut : reprise par comparaison de lignes, sur index
+            window = taskRepository.findByUserIdOrderByPriority(userDetails.getId(), completed, sortDirection,
+                    taskCursor != null ? (Integer) taskCursor.getKey() : null,
+                    taskCursor != null ? taskCursor.getId() : null, limit);
+        } else {
+            ScrollPosition position = taskCursor != null ? taskCursor.toScrollPosition() : ScrollPosition.keyset();
+            // L'id termine le tri pour que la position de reprise soit unique
+            Sort order = Sort.by(sortDirection, taskSort.getProperty())
+                    .and(Sort.by(sortDirection, "id"));
+            window = completed == null
+                    ? taskRepository.findByUserId(userDetails.getId(), position, order, limit)
+                    : taskRepository.findByUserIdAndCompleted(userDetails.getId(), completed, position, order, limit);
+        }
+
+        List<TaskResponse> items = window.getContent();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? TaskCursor.after(items.get(items.size() - 1), taskSort, sortDirection).encode()
+                : null;
+        return new TaskPageResponse(items, nextCursor);
+    }
+
+    /**
+     * Prochaines tâches à faire : tâches non terminées de l'utilisateur connecté, par
+     * priorité (1 = haute), puis de la plus ancienne à la plus récente.
+     * Servies par TaskPriorityIndex, sans requête SQL une fois l'index chargé.
+     *
+     * @param userDetails info de l'utilisateur connecté
+     * @param limit nombre maximal de tâches (1 à 200)
+     * @return tâches ouvertes, la plus urgente d'abord
+     */
+    @GetMapping("/next")
+    public List<TaskResponse> getNextTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                           @RequestParam(defaultValue = "5") int limit) {
+        Long userId = userDetails.getId();
+        return taskPriorityIndex.next(userId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)),
+                () -> taskRepository.findOpenByUserId(userId));
+    }
+
+    /**
+     * Recherche plein texte dans le titre et la description des tâches de l'utilisateur.
+     * Chaque mot est cherché comme préfixe, les résultats sont classés par pertinence.
+     *
+     * @param userDetails info de l'utilisateur connecté
+     * @param q texte recherché
+     * @param limit nombre maximal de résultats (1 à 200)
+     * @return tâches trouvées, les plus pertinentes d'abord
+     */
+    @GetMapping("/search")
+    public List<TaskResponse> searchTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                          @RequestParam String q,
+                                          @RequestParam(defaultValue = "20") int limit) {
+        return taskSearchService.search(userDetails.getId(), q, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
     /**
@@ -54,17 +251,52 @@ public class TaskController {
     @PostMapping
     public TaskResponse createTask(@AuthenticationPrincipal UserDetailsImpl userDetails,
                                    @RequestBody Task taskRequest) {
-        User user = userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        // Référence sans SELECT : l'id vient du JWT signé
+        User user = userRepository.getReferenceById(userDetails.getId());
 
-        Task task = new Task();
-        task.setTitle(taskRequest.getTitle());
-        task.setDescription(taskRequest.getDescription());
-        task.setPriority(taskRequest.getPriority());
-        task.setCompleted(false); // nouvelle tâche non complétée
-        task.setUser(user);
+        return taskBatchService.create(user, taskRequest);
+    }
 
-        return new TaskResponse(taskRepository.save(task));
+    /**
+     * Crée un lot de tâches pour l'utilisateur connecté, dans une seule transaction.
+     *
+     * @param userDetails utilisateur connecté
+     * @param taskRequests tâches à créer (500 au maximum)
+     * @return un résultat par tâche (201 ou 400), dans l'ordre de la requête
+     */
+    @PostMapping("/batch")
+    public List<BatchItemResult> createTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                             @RequestBody List<Task> taskRequests) {
+        checkBatchSize(taskRequests.size());
+        return taskBatchService.createAll(userDetails.getId(), taskRequests);
+    }
+
+    /**
+     * Met à jour un lot de tâches (chaque élément porte son id), dans une seule transaction.
+     *
+     * @param userDetails utilisateur connecté
+     * @param taskRequests nouvelles données des tâches (500 au maximum)
+     * @return un résultat par tâche (200, 400, 403 ou 404), dans l'ordre de la requête
+     */
+    @PutMapping("/batch")
+    public List<BatchItemResult> updateTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                             @RequestBody List<Task> taskRequests) {
+        checkBatchSize(taskRequests.size());
+        return taskBatchService.updateAll(userDetails.getId(), taskSecurity.isAdmin(userDetails), taskRequests);
+    }
+
+    /**
+     * Supprime un lot de tâches, dans une seule transaction.
+     *
+     * @param userDetails utilisateur connecté
+     * @param ids ids des tâches à supprimer (500 au maximum)
+     * @return un résultat par tâche (200, 403 ou 404), dans l'ordre de la requête
+     */
+    @DeleteMapping("/batch")
+    public List<BatchItemResult> deleteTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                             @RequestBody List<Long> ids) {
+        checkBatchSize(ids.size());
+        return taskBatchService.deleteAll(userDetails.getId(), taskSecurity.isAdmin(userDetails), ids);
     }
 
     /**
@@ -80,44 +312,157 @@ public class TaskController {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
-        taskRequest.setUser(user);
-        return new TaskResponse(taskRepository.save(taskRequest));
+        return taskBatchService.create(user, taskRequest);
     }
 
     /**
      * Met à jour une tâche existante.
      *
+     * Lecture verrouillée de son état précédent (SELECT ... FOR UPDATE, par projection)
+     * puis une requête UPDATE, dans une même transaction : la tâche n'est pas chargée en
+     * entité. Voir TaskSyncService.updateOwned.
+     *
      * @param userDetails utilisateur connecté
      * @param id id de la tâche à mettre à jour
      * @param taskDetails nouvelles données de la tâche
      * @return TaskResponse de la tâche mise à jour
      */
     @PutMapping("/{id}")
-    @PreAuthorize("@taskSecurity.canAccessTask(#id, principal)") // vérifie droits
     public TaskResponse updateTask(@AuthenticationPrincipal UserDetailsImpl userDetails,
                                    @PathVariable Long id,
                                    @RequestBody Task taskDetails) {
-        Task task = taskRepository.findById(id).orElseThrow();
-        task.setTitle(taskDetails.getTitle());
-        task.setDescription(taskDetails.getDescription());
-        task.setCompleted(taskDetails.isCompleted());
-        task.setPriority(taskDetails.getPriority());
-        return new TaskResponse(taskRepository.save(task));
+        return taskSecurity.isAdmin(userDetails)
+                ? taskSyncService.updateAny(id, taskDetails)
+                : taskSyncService.updateOwned(id, userDetails.getId(), taskDetails);
     }
 
     /**
      * Supprime une tâche.
      *
+     * Lecture verrouillée de la tâche puis une requête DELETE, dans une même transaction,
+     * plus la trace de suppression pour la synchronisation delta.
+     *
+     * @param userDetails utilisateur connecté
      * @param id id de la tâche à supprimer
      * @return message de confirmation
      */
     @DeleteMapping("/{id}")
-    @PreAuthorize("@taskSecurity.canAccessTask(#id, principal)") // vérifie droits
-    public String deleteTask(@PathVariable Long id) {
-        Task task = taskRepository.findById(id).orElseThrow();
-        taskRepository.delete(task);
+    public String deleteTask(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                             @PathVariable Long id) {
+        if (taskSecurity.isAdmin(userDetails)) {
+            taskSyncService.deleteAny(id);
+        } else {
+            taskSyncService.deleteOwned(id, userDetails.getId());
+        }
         return "Tâche supprimée !";
     }
-}
 
+    /**
+     * Importe des tâches depuis un fichier CSV (en-tête title,description,priority)
+     * ou NDJSON (un objet tâche par ligne), lu en flux et enregistré par lots.
+     *
+     * La réponse NDJSON indique la progression après chaque lot, les lignes rejetées
+     * et un résumé final.
+     *
+     * @param userDetails utilisateur connecté
+     * @param request requête dont le corps est lu au fil de l'eau
+     * @return flux NDJSON de progression
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                             HttpServletRequest request) {
+        TaskFileFormat format = TaskFileFormat.fromContentType(request.getContentType());
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = out ->
+                taskImportService.importTasks(userId, format, request.getInputStream(), out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Flux Server-Sent Events des changements des tâches de l'utilisateur connecté
+     * (événements created, updated, deleted, et resync après un lot importé ou si le client a
+     * pris trop de retard).
+     *
+     * Le JWT est lu dans l'en-tête Authorization, ou un ticket SSE dans le paramètre ticket
+     * pour EventSource, qui ne permet pas d'envoyer d'en-tête (voir issueEventsTicket).
+     *
+     * @param userDetails utilisateur connecté
+     * @return flux SSE
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return taskEventBus.subscribe(userDetails.getId());
+    }
+
+    /**
+     * Émet un ticket SSE pour ouvrir un flux avec EventSource (GET /api/tasks/events, ou
+     * /api/admin/events pour un admin) : l'access token ne passe jamais dans l'URL.
+     * Le ticket n'est valable que quelques secondes : le client en demande un nouveau à
+     * chaque (re)connexion.
+     *
+     * @param userDetails utilisateur connecté
+     * @return ticket et durée de validité
+     */
+    @PostMapping("/events/ticket")
+    public SseTicketResponse issueEventsTicket(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Integer tokenVersion = userRepository.findTokenVersion(userDetails.getId());
+        if (tokenVersion == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Utilisateur introuvable");
+        }
+        String ticket = jwtUtils.generateSseTicket(userDetails.getId(), userDetails.getUsername(),
+                userDetails.getRole().name(), tokenVersion);
+        return new SseTicketResponse(ticket, jwtUtils.getSseTicketExpirationMs() / 1000);
+    }
+
+    /**
+     * Exporte toutes les tâches de l'utilisateur connecté en CSV ou NDJSON.
+     * Les tâches sont lues et écrites en flux, sans être toutes chargées en mémoire.
+     *
+     * @param userDetails utilisateur connecté
+     * @param format csv ou ndjson
+     * @return fichier d'export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@AuthenticationPrincipal UserDetailsImpl userDetails,
+                                                             @RequestParam(defaultValue = "ndjson") String format) {
+        TaskFileFormat fileFormat = parseFormat(format);
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = out -> taskExportService.exportUserTasks(userId, fileFormat, out);
+        return exportResponse(fileFormat, body);
+    }
+
+    /**
+     * Convertit le paramètre format d'export, 400 s'il est inconnu.
+     */
+    static TaskFileFormat parseFormat(String format) {
+        try {
+            return TaskFileFormat.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format inconnu : " + format);
+        }
+    }
 
+    /**
+     * Réponse de téléchargement pour un export au format donné.
+     */
+    static ResponseEntity<StreamingResponseBody> exportResponse(TaskFileFormat format, StreamingResponseBody body) {
+        String filename = "tasks." + format.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > TaskBatchService.MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Lot trop grand (" + TaskBatchService.MAX_BATCH_SIZE + " éléments au maximum)");
+        }
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(SYNC_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token d'un appareil connecté.
+ *
+ * Seule l'empreinte SHA-256 du jeton est stockée (index unique) : une fuite de la table
+ * ne donne pas de jeton utilisable. Chaque login ouvre une famille (familyId) ; chaque
+ * rafraîchissement marque le jeton comme utilisé et en émet un nouveau dans la même
+ * famille. Les jetons utilisés sont gardés jusqu'à leur expiration pour détecter une
+ * réutilisation.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt; // null tant que le jeton n'a pas servi
+
+    protected RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, Long userId, String familyId,
+                        LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.familyId = familyId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public String getTokenHash() { return tokenHash; }
+    public Long getUserId() { return userId; }
+    public String getFamilyId() { return familyId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public LocalDateTime getUsedAt() { return usedAt; }
+}
@@ -3,18 +3,38 @@ package com.example.todoapp.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Index de pagination par clé : (propriétaire, statut, clé de tri, id). Le tri par
+        // titre porte sur coalesce(title, ''), indexé sur PostgreSQL seulement (V5, V7)
+        @Index(name = "idx_tasks_user_completed_priority", columnList = "user_id, completed, priority, id"),
+        @Index(name = "idx_tasks_user_completed_created", columnList = "user_id, completed, created_at, id"),
+        // Liste par propriétaire (filtre user_id seul) et tri par date de création
+        @Index(name = "idx_tasks_user_created", columnList = "user_id, created_at, id"),
+        // Liste sans filtre de statut triée par priorité (tri par défaut)
+        @Index(name = "idx_tasks_user_priority", columnList = "user_id, priority, id"),
+        // Synchronisation delta (?since=)
+        @Index(name = "idx_tasks_user_updated", columnList = "user_id, updated_at")
+})
 public class Task {
 
+    // Séquence allouée par blocs de 50 : les ids sont connus avant l'INSERT,
+    // ce qui permet à Hibernate de regrouper les insertions en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
-    private LocalDateTime createdAt = LocalDateTime.now();
+    // Tronqué à la microseconde, précision des timestamps en base (curseurs stables)
+    private LocalDateTime createdAt = now();
+    // Date de dernière modification, mise à jour à chaque UPDATE
+    private LocalDateTime updatedAt = createdAt;
     private String title;
     private String description;
     private boolean completed = false;
+    // Date du passage à terminée (durée de complétion), null pour une tâche ouverte
+    private LocalDateTime completedAt;
     private int priority = 2; // 1=haute, 2=moyenne, 3=basse
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,16 +42,48 @@ public class Task {
     @JsonIgnore
     private User user;
 
+    // Clé étrangère en lecture seule : permet de filtrer sans jointure sur users
+    @Column(name = "user_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long userId;
+
+    /**
+     * Horodatage courant, tronqué à la microseconde (précision des timestamps en base).
+     */
+    public static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PreUpdate
+    void touch() {
+        updatedAt = now();
+    }
+
     public Long getId() { return id; }
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public boolean isCompleted() { return completed; }
-    public void setCompleted(boolean completed) { this.completed = completed; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+
+    /**
+     * Change le statut : completedAt est fixé quand la tâche devient terminée, effacé
+     * quand elle est rouverte, inchangé sinon.
+     */
+    public void setCompleted(boolean completed) {
+        if (!completed) {
+            completedAt = null;
+        } else if (!this.completed || completedAt == null) {
+            completedAt = now();
+        }
+        this.completed = completed;
+    }
     public int getPriority() { return priority; }
     public void setPriority(int priority) { this.priority = priority; }
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+    public Long getUserId() { return userId; }
 }
@@ -0,0 +1,52 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'une tâche supprimée, pour la synchronisation delta (GET /api/tasks?since=).
+ * Les ids de tâches ne sont jamais réutilisés : l'id de la tâche sert de clé.
+ * Les tombstones sont purgées après la durée de rétention (tasks.sync.tombstone-retention-days).
+ */
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_user_deleted", columnList = "user_id, deleted_at"),
+        @Index(name = "idx_task_tombstones_deleted", columnList = "deleted_at")
+})
+public class TaskTombstone implements Persistable<Long> {
+
+    @Id
+    private Long taskId;
+    private Long userId;
+    private LocalDateTime deletedAt;
+
+    // Id fourni par l'appelant : indique à save() de faire un INSERT direct, sans SELECT préalable
+    @Transient
+    private boolean isNew = true;
+
+    protected TaskTombstone() {
+    }
+
+    public TaskTombstone(Long taskId, Long userId, LocalDateTime deletedAt) {
+        this.taskId = taskId;
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public Long getId() { return taskId; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public Long getTaskId() { return taskId; }
+    public Long getUserId() { return userId; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "uk_users_username", columnList = "username", unique = true),
+        @Index(name = "uk_users_email", columnList = "email", unique = true)
+})
 public class User {
 
     @Id
@@ -15,7 +18,9 @@ public class User {
     private String password;
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
-    private String refreshToken;
+    // Claim "ver" des JWT ; en lecture seule : modifiée par UserRepository.incrementTokenVersion
+    @Column(name = "token_version", insertable = false, updatable = false)
+    private int tokenVersion;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Task> tasks;
@@ -29,8 +34,7 @@ public class User {
     public void setPassword(String password) { this.password = password; }
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
-    public String getRefreshToken() { return refreshToken; }
-    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    public int getTokenVersion() { return tokenVersion; }
     public List<Task> getTasks() { return tasks; }
     public void setTasks(List<Task> tasks) { this.tasks = tasks; }
 }
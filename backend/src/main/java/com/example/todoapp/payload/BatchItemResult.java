@@ -0,0 +1,58 @@
+package com.example.todoapp.payload;
+
+/**
+ * DTO représentant le résultat d'un élément d'une opération en lot.
+ *
+ * index correspond à la position de l'élément dans la requête, status à un
+ * code HTTP (200, 201, 400, 403, 404). task est renseigné pour les créations
+ * et mises à jour réussies, error pour les échecs.
+ */
+public class BatchItemResult {
+
+    private int index;
+    private int status;
+    private Long id;
+    private TaskResponse task;
+    private String error;
+
+    public static BatchItemResult success(int index, int status, TaskResponse task) {
+        BatchItemResult result = new BatchItemResult();
+        result.index = index;
+        result.status = status;
+        result.id = task != null ? task.getId() : null;
+        result.task = task;
+        return result;
+    }
+
+    public static BatchItemResult deleted(int index, Long id) {
+        BatchItemResult result = new BatchItemResult();
+        result.index = index;
+        result.status = 200;
+        result.id = id;
+        return result;
+    }
+
+    public static BatchItemResult failure(int index, int status, Long id, String error) {
+        BatchItemResult result = new BatchItemResult();
+        result.index = index;
+        result.status = status;
+        result.id = id;
+        result.error = error;
+        return result;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public TaskResponse getTask() { return task; }
+    public void setTask(TaskResponse task) { this.task = task; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
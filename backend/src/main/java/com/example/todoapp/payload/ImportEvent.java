@@ -0,0 +1,53 @@
+package com.example.todoapp.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Ligne de la réponse NDJSON d'un import de tâches.
+ *
+ * type vaut :
+ *   - "error"    : une ligne du fichier a été rejetée (line, error)
+ *   - "progress" : un lot vient d'être enregistré (processed, imported, failed)
+ *   - "summary"  : fin de l'import (processed, imported, failed, et error si l'import a été interrompu)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+
+    private String type;
+    private Long line;
+    private String error;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+
+    public static ImportEvent error(long line, String error) {
+        ImportEvent event = new ImportEvent();
+        event.type = "error";
+        event.line = line;
+        event.error = error;
+        return event;
+    }
+
+    public static ImportEvent progress(long processed, long imported, long failed) {
+        ImportEvent event = new ImportEvent();
+        event.type = "progress";
+        event.processed = processed;
+        event.imported = imported;
+        event.failed = failed;
+        return event;
+    }
+
+    public static ImportEvent summary(long processed, long imported, long failed, String error) {
+        ImportEvent event = progress(processed, imported, failed);
+        event.type = "summary";
+        event.error = error;
+        return event;
+    }
+
+    public String getType() { return type; }
+    public Long getLine() { return line; }
+    public String getError() { return error; }
+    public Long getProcessed() { return processed; }
+    public Long getImported() { return imported; }
+    public Long getFailed() { return failed; }
+}
@@ -0,0 +1,19 @@
+package com.example.todoapp.payload;
+
+/**
+ * DTO du ticket SSE (POST /api/tasks/events/ticket), à passer dans le paramètre ticket
+ * de GET /api/tasks/events ou /api/admin/events.
+ */
+public class SseTicketResponse {
+    private String ticket;
+    private long expiresIn; // secondes
+
+    public SseTicketResponse(String ticket, long expiresIn) {
+        this.ticket = ticket;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getTicket() { return ticket; }
+
+    public long getExpiresIn() { return expiresIn; }
+}
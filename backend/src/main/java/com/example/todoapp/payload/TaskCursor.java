@@ -0,0 +1,116 @@
+package com.example.todoapp.payload;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Curseur opaque pour la pagination par clé (keyset / seek) des tâches.
+ *
+ * Le curseur contient le tri, la direction, l'id et la valeur de tri de la
+ * dernière tâche renvoyée. La page suivante repart de cette position avec
+ * un WHERE (tri, id) > (valeur, id) au lieu d'un OFFSET.
+ *
+ * Une valeur de tri nulle (tâche sans titre) est encodée à part : elle ne se confond
+ * pas avec le titre "null".
+ */
+public class TaskCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_KEY = "-";
+    private static final String KEY_PREFIX = "=";
+
+    private final TaskSort sort;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final Object key;
+
+    private TaskCursor(TaskSort sort, Sort.Direction direction, Long id, Object key) {
+        this.sort = sort;
+        this.direction = direction;
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * Construit le curseur pointant juste après la tâche donnée.
+     */
+    public static TaskCursor after(TaskResponse task, TaskSort sort, Sort.Direction direction) {
+        Object key = switch (sort) {
+            case PRIORITY -> task.getPriority();
+            case TITLE -> task.getTitle();
+            case CREATED_AT -> task.getCreatedAt();
+        };
+        return new TaskCursor(sort, direction, task.getId(), key);
+    }
+
+    /**
+     * Décode un curseur reçu du client.
+     *
+     * @param token curseur encodé en base64url
+     * @return le curseur décodé
+     * @throws IllegalArgumentException si le curseur est illisible
+     */
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // La valeur est en dernier : un titre peut contenir le séparateur
+            String[] parts = raw.split("\\|", 4);
+            TaskSort sort = TaskSort.valueOf(parts[0]);
+            Object key;
+            if (parts[3].equals(NULL_KEY)) {
+                key = null;
+            } else if (parts[3].startsWith(KEY_PREFIX)) {
+                key = sort.parseKey(parts[3].substring(KEY_PREFIX.length()));
+            } else {
+                throw new IllegalArgumentException("Valeur de tri illisible");
+            }
+            return new TaskCursor(sort, Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    /**
+     * @return le curseur encodé en base64url, à renvoyer tel quel par le client
+     */
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR
+                + (key == null ? NULL_KEY : KEY_PREFIX + key);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Vérifie que le curseur a été émis pour le même tri que la requête courante.
+     */
+    public boolean matches(TaskSort sort, Sort.Direction direction) {
+        return this.sort == sort && this.direction == direction;
+    }
+
+    /**
+     * @return id de la dernière tâche renvoyée
+     */
+    public Long getId() { return id; }
+
+    /**
+     * @return valeur de tri de la dernière tâche renvoyée (null pour une tâche sans titre)
+     */
+    public Object getKey() { return key; }
+
+    /**
+     * @return la position de reprise pour Spring Data (clés tri + id), pour un tri
+     * dont la valeur n'est jamais nulle (priorité, date de création)
+     */
+    public KeysetScrollPosition toScrollPosition() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sort.getProperty(), key);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.todoapp.payload;
+
+import java.util.List;
+
+/**
+ * DTO de synchronisation delta de la liste de tâches (GET /api/tasks?since=).
+ *
+ * changed contient les tâches créées ou modifiées depuis since, deletedIds les ids
+ * des tâches supprimées. watermark est à renvoyer tel quel comme since à la
+ * synchronisation suivante. Si full vaut true (since trop ancien), changed contient
+ * la liste complète et le client doit remplacer sa copie locale.
+ */
+public class TaskDeltaResponse {
+
+    private List<TaskResponse> changed;
+    private List<Long> deletedIds;
+    private String watermark;
+    private boolean full;
+
+    public TaskDeltaResponse(List<TaskResponse> changed, List<Long> deletedIds, String watermark, boolean full) {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+        this.watermark = watermark;
+        this.full = full;
+    }
+
+    public List<TaskResponse> getChanged() { return changed; }
+    public void setChanged(List<TaskResponse> changed) { this.changed = changed; }
+
+    public List<Long> getDeletedIds() { return deletedIds; }
+    public void setDeletedIds(List<Long> deletedIds) { this.deletedIds = deletedIds; }
+
+    public String getWatermark() { return watermark; }
+    public void setWatermark(String watermark) { this.watermark = watermark; }
+
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+}
@@ -0,0 +1,119 @@
+package com.example.todoapp.payload;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Changement d'une tâche, publié après commit et poussé aux clients abonnés (SSE).
+ *
+ * type vaut :
+ *   - "created" : tâche créée (task)
+ *   - "updated" : tâche modifiée (task)
+ *   - "deleted" : tâche supprimée (taskId seul)
+ *   - "resync"  : tâches créées en lot (import), le client recharge avec GET /api/tasks?since=
+ *   - "userDeleted" : l'utilisateur et toutes ses tâches sont supprimés (userId seul)
+ *
+ * previous porte l'état de la tâche avant une modification ou une suppression, created
+ * les tâches d'un "resync", pour les abonnés internes (TaskStats, TaskPriorityIndex) ;
+ * ils ne sont pas envoyés aux clients.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEvent {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String RESYNC = "resync";
+    public static final String USER_DELETED = "userDeleted";
+
+    private String type;
+    private Long taskId;
+    private Long userId;
+    private TaskResponse task;
+    private TaskResponse previous;
+    private List<TaskResponse> created;
+
+    public static TaskEvent created(TaskResponse task) {
+        return of(CREATED, task);
+    }
+
+    /**
+     * @param task     tâche modifiée
+     * @param previous état avant modification, null si inconnu
+     */
+    public static TaskEvent updated(TaskResponse task, TaskResponse previous) {
+        TaskEvent event = of(UPDATED, task);
+        event.previous = previous;
+        return event;
+    }
+
+    /**
+     * @param previous état de la tâche supprimée
+     */
+    public static TaskEvent deleted(TaskResponse previous) {
+        TaskEvent event = new TaskEvent();
+        event.type = DELETED;
+        event.taskId = previous.getId();
+        event.userId = previous.getUserId();
+        event.previous = previous;
+        return event;
+    }
+
+    /**
+     * Un seul événement pour un lot de tâches créées ensemble, au lieu d'un par tâche.
+     *
+     * @param userId  propriétaire des tâches
+     * @param created tâches créées
+     */
+    public static TaskEvent resync(Long userId, List<TaskResponse> created) {
+        TaskEvent event = new TaskEvent();
+        event.type = RESYNC;
+        event.userId = userId;
+        event.created = created;
+        return event;
+    }
+
+    /**
+     * Un seul événement pour toutes les tâches d'un utilisateur supprimé.
+     *
+     * @param userId utilisateur supprimé
+     */
+    public static TaskEvent userDeleted(Long userId) {
+        TaskEvent event = new TaskEvent();
+        event.type = USER_DELETED;
+        event.userId = userId;
+        return event;
+    }
+
+    private static TaskEvent of(String type, TaskResponse task) {
+        TaskEvent event = new TaskEvent();
+        event.type = type;
+        event.taskId = task.getId();
+        event.userId = task.getUserId();
+        event.task = task;
+        return event;
+    }
+
+    public String getType() { return type; }
+    public Long getTaskId() { return taskId; }
+    public Long getUserId() { return userId; }
+    public TaskResponse getTask() { return task; }
+    @JsonIgnore
+    public TaskResponse getPrevious() { return previous; }
+    @JsonIgnore
+    public List<TaskResponse> getCreated() { return created; }
+
+    /**
+     * @return true si l'événement porte sur une tâche supprimée
+     */
+    @JsonIgnore
+    public boolean isDeleted() { return DELETED.equals(type); }
+
+    /**
+     * @return true si l'événement porte sur un utilisateur supprimé avec ses tâches
+     */
+    @JsonIgnore
+    public boolean isUserDeleted() { return USER_DELETED.equals(type); }
+}
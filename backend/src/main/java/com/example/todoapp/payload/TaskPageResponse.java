@@ -0,0 +1,30 @@
+package com.example.todoapp.payload;
+
+import java.util.List;
+
+/**
+ * DTO représentant une page de tâches obtenue par pagination par clé.
+ *
+ * nextCursor est null lorsque la dernière page a été atteinte.
+ */
+public class TaskPageResponse {
+
+    private List<TaskResponse> items;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public TaskPageResponse(List<TaskResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    public List<TaskResponse> getItems() { return items; }
+    public void setItems(List<TaskResponse> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+}
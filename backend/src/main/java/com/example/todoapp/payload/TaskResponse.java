@@ -1,6 +1,8 @@
 package com.example.todoapp.payload;
 
 import com.example.todoapp.model.Task;
+import org.springframework.data.annotation.PersistenceCreator;
+
 import java.time.LocalDateTime;
 
 /**
@@ -15,20 +17,41 @@ public class TaskResponse {
     private boolean completed;
     private int priority;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt; // null pour une tâche ouverte
     private Long userId; // ID de l'utilisateur propriétaire de la tâche
 
     /**
      * Construit un TaskResponse à partir d'une entité Task.
      * Permet de ne pas exposer directement l'entité dans les réponses HTTP.
+     * L'id du propriétaire est lu dans la colonne user_id quand elle est chargée,
+     * sinon sur l'utilisateur (tâche pas encore relue après INSERT).
      */
     public TaskResponse(Task task) {
-        this.id = task.getId();
-        this.title = task.getTitle();
-        this.description = task.getDescription();
-        this.completed = task.isCompleted();
-        this.priority = task.getPriority();
-        this.createdAt = task.getCreatedAt();
-        this.userId = task.getUser() != null ? task.getUser().getId() : null;
+        this(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted(), task.getPriority(),
+                task.getCreatedAt(), task.getUpdatedAt(), task.getCompletedAt(),
+                task.getUserId() != null ? task.getUserId()
+                        : task.getUser() != null ? task.getUser().getId() : null);
+    }
+
+    /**
+     * Construit un TaskResponse directement à partir des colonnes, pour les projections
+     * des lectures (select new ... dans TaskRepository) : aucune entité Task n'est créée.
+     * Constructeur désigné à Spring Data pour les requêtes dérivées renvoyant des TaskResponse.
+     */
+    @PersistenceCreator
+    public TaskResponse(Long id, String title, String description, boolean completed, int priority,
+                        LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime completedAt,
+                        Long userId) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.completedAt = completedAt;
+        this.userId = userId;
     }
 
     // Getters et setters standards
@@ -50,6 +73,12 @@ public class TaskResponse {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
 }
@@ -0,0 +1,56 @@
+package com.example.todoapp.payload;
+
+import java.time.LocalDateTime;
+
+/**
+ * Critères de tri autorisés pour la liste paginée des tâches.
+ *
+ * Chaque critère connaît la propriété JPA correspondante et sait relire
+ * la valeur de clé stockée dans un curseur.
+ */
+public enum TaskSort {
+    PRIORITY("priority"),
+    TITLE("title"),
+    CREATED_AT("createdAt");
+
+    private final String property;
+
+    TaskSort(String property) {
+        this.property = property;
+    }
+
+    /**
+     * @return le nom de la propriété de l'entité Task utilisée pour le tri
+     */
+    public String getProperty() { return property; }
+
+    /**
+     * Convertit le paramètre de requête (priority, title, createdAt) en critère de tri.
+     *
+     * @param value valeur reçue dans la query string
+     * @return le critère correspondant
+     * @throws IllegalArgumentException si le critère est inconnu
+     */
+    public static TaskSort fromParam(String value) {
+        for (TaskSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Tri inconnu : " + value);
+    }
+
+    /**
+     * Relit une valeur de clé sérialisée dans un curseur.
+     *
+     * @param raw valeur textuelle
+     * @return la valeur typée (Integer, String ou LocalDateTime)
+     */
+    Object parseKey(String raw) {
+        return switch (this) {
+            case PRIORITY -> Integer.valueOf(raw);
+            case TITLE -> raw;
+            case CREATED_AT -> LocalDateTime.parse(raw);
+        };
+    }
+}
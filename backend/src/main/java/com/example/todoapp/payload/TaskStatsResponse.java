@@ -0,0 +1,91 @@
+package com.example.todoapp.payload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO des statistiques globales des tâches (GET /api/admin/stats).
+ *
+ * tasksPerUser : nombre d'utilisateurs par classe de nombre de tâches ("1-9", "10-99",
+ * "100-999", "1000+") ; les utilisateurs sans tâche ne sont pas comptés.
+ * timeToComplete : nombre de tâches terminées par classe de durée, de la création au
+ * passage à terminée ("<1h", "<1d", "<7d", "<30d", ">=30d").
+ * reconciledAt : dernière comparaison des compteurs avec la base.
+ */
+public class TaskStatsResponse {
+
+    /**
+     * Tâches ouvertes et terminées d'une priorité.
+     */
+    public static class PriorityCounts {
+
+        private int priority;
+        private long open;
+        private long completed;
+
+        public PriorityCounts(int priority, long open, long completed) {
+            this.priority = priority;
+            this.open = open;
+            this.completed = completed;
+        }
+
+        public int getPriority() { return priority; }
+        public long getOpen() { return open; }
+        public long getCompleted() { return completed; }
+    }
+
+    /**
+     * Tâches ouvertes et terminées d'un utilisateur.
+     */
+    public static class UserCounts {
+
+        private Long userId;
+        private long open;
+        private long completed;
+
+        public UserCounts(Long userId, long open, long completed) {
+            this.userId = userId;
+            this.open = open;
+            this.completed = completed;
+        }
+
+        public Long getUserId() { return userId; }
+        public long getOpen() { return open; }
+        public long getCompleted() { return completed; }
+    }
+
+    private long total;
+    private long open;
+    private long completed;
+    private List<PriorityCounts> byPriority;
+    private long usersWithTasks;
+    private Map<String, Long> tasksPerUser;
+    private Map<String, Long> timeToComplete;
+    private Long averageTimeToCompleteSeconds;
+    private LocalDateTime reconciledAt;
+
+    public TaskStatsResponse(long open, long completed, List<PriorityCounts> byPriority, long usersWithTasks,
+                             Map<String, Long> tasksPerUser, Map<String, Long> timeToComplete,
+                             Long averageTimeToCompleteSeconds, LocalDateTime reconciledAt) {
+        this.total = open + completed;
+        this.open = open;
+        this.completed = completed;
+        this.byPriority = byPriority;
+        this.usersWithTasks = usersWithTasks;
+        this.tasksPerUser = tasksPerUser;
+        this.timeToComplete = timeToComplete;
+        this.averageTimeToCompleteSeconds = averageTimeToCompleteSeconds;
+        this.reconciledAt = reconciledAt;
+    }
+
+    public long getTotal() { return total; }
+    public long getOpen() { return open; }
+    public long getCompleted() { return completed; }
+    public List<PriorityCounts> getByPriority() { return byPriority; }
+    public long getUsersWithTasks() { return usersWithTasks; }
+    public Map<String, Long> getTasksPerUser() { return tasksPerUser; }
+    public Map<String, Long> getTimeToComplete() { return timeToComplete; }
+    public Long getAverageTimeToCompleteSeconds() { return averageTimeToCompleteSeconds; }
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+}
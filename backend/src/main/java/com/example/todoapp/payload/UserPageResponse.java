@@ -0,0 +1,26 @@
+package com.example.todoapp.payload;
+
+import java.util.List;
+
+/**
+ * DTO représentant une page d'utilisateurs pour l'administration.
+ *
+ * nextCursor (id du dernier utilisateur de la page) est null lorsque
+ * la dernière page a été atteinte.
+ */
+public class UserPageResponse {
+
+    private List<UserResponse> items;
+    private Long nextCursor;
+
+    public UserPageResponse(List<UserResponse> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserResponse> getItems() { return items; }
+    public void setItems(List<UserResponse> items) { this.items = items; }
+
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+}
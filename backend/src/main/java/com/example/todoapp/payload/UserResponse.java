@@ -1,36 +1,47 @@
 package com.example.todoapp.payload;
 
-import com.example.todoapp.model.User;
+import com.example.todoapp.model.Role;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * DTO pour exposer les informations d'un utilisateur via l'API.
  *
- * Contient l'id, le username, le rôle et la liste des tâches associées.
+ * Contient l'id, le username, le rôle, le nombre de tâches et,
+ * sauf en mode « compteurs seuls », la liste des tâches associées.
  */
 public class UserResponse {
     private Long id;
     private String username;
     private String role;
+    private long taskCount;
     private List<TaskResponse> tasks;
 
     /**
-     * Construit un UserResponse à partir d'un User.
+     * Construit un UserResponse à partir des colonnes lues par projection, sans entité User.
      *
-     * @param user l'utilisateur source
+     * @param id id de l'utilisateur
+     * @param username nom d'utilisateur
+     * @param role rôle
+     * @param tasks les tâches de l'utilisateur
      */
-    public UserResponse(User user) {
-        this.id = user.getId();
-        this.username = user.getUsername();
-        this.role = user.getRole().name();
-        // Transforme les tâches en TaskResponse, ou null si pas de tâches
-        this.tasks = user.getTasks() != null
-                ? user.getTasks()
-                .stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList())
-                : null;
+    public UserResponse(Long id, String username, Role role, List<TaskResponse> tasks) {
+        this(id, username, role, tasks.size());
+        this.tasks = tasks;
+    }
+
+    /**
+     * Construit un UserResponse ne contenant que le nombre de tâches, sans entité User.
+     *
+     * @param id id de l'utilisateur
+     * @param username nom d'utilisateur
+     * @param role rôle
+     * @param taskCount nombre de tâches de l'utilisateur
+     */
+    public UserResponse(Long id, String username, Role role, long taskCount) {
+        this.id = id;
+        this.username = username;
+        this.role = role.name();
+        this.taskCount = taskCount;
     }
 
     public Long getId() { return id; }
@@ -39,10 +50,12 @@ public class UserResponse {
     public void setUsername(String username) { this.username = username; }
     public String getRole() { return role; }
     public void setRole(String role) { this.role = role; }
+    public long getTaskCount() { return taskCount; }
+    public void setTaskCount(long taskCount) { this.taskCount = taskCount; }
 
     /**
      * Retourne la liste des tâches de l'utilisateur.
-     * Peut être null si l'utilisateur n'a pas encore de tâches.
+     * Null lorsque seuls les compteurs ont été demandés.
      *
      * @return liste des TaskResponse ou null
      */
@@ -0,0 +1,84 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.RefreshToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository des refresh tokens (recherche par empreinte, via index unique).
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Recherche un jeton par son empreinte.
+     * @param tokenHash empreinte SHA-256 (hexadécimal) du jeton
+     * @return un Optional contenant le jeton si trouvé
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marque un jeton comme utilisé, s'il ne l'est pas déjà.
+     * Sur deux rafraîchissements simultanés du même jeton, un seul obtient 1.
+     * @param id id du jeton
+     * @param usedAt date d'utilisation
+     * @return 1 si le jeton a été marqué, 0 s'il était déjà utilisé ou supprimé
+     */
+    @Modifying
+    @Query("update RefreshToken r set r.usedAt = :usedAt where r.id = :id and r.usedAt is null")
+    int markUsed(@Param("id") Long id, @Param("usedAt") LocalDateTime usedAt);
+
+    /**
+     * Date d'utilisation d'un jeton, lue en base (hors contexte de persistance).
+     * @param id id du jeton
+     * @return date d'utilisation, null si inutilisé ou supprimé
+     */
+    @Query("select r.usedAt from RefreshToken r where r.id = :id")
+    LocalDateTime findUsedAt(@Param("id") Long id);
+
+    /**
+     * Révoque tous les jetons d'une famille (réutilisation détectée).
+     * @param familyId id de la famille
+     * @return nombre de jetons supprimés
+     */
+    @Modifying
+    @Query("delete from RefreshToken r where r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    /**
+     * Révoque tous les jetons d'un utilisateur (tous ses appareils).
+     * @param userId id de l'utilisateur
+     * @return nombre de jetons supprimés
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Ids des jetons expirés, par lot.
+     * @param now date de référence
+     * @param limit taille maximale du lot
+     * @return ids des jetons expirés avant now
+     */
+    @Query("select r.id from RefreshToken r where r.expiresAt < :now order by r.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Supprime un lot de jetons, dans sa propre transaction.
+     * @param ids ids des jetons
+     * @return nombre de jetons supprimés
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
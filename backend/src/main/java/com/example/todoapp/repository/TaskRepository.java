@@ -1,29 +1,565 @@
 package com.example.todoapp.repository;
 
 import com.example.todoapp.model.Task;
-import com.example.todoapp.model.User;
+import com.example.todoapp.payload.TaskResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour l'entité Task.
  * Permet de gérer la persistance des tâches en base de données
  * et de récupérer des tâches liées à un utilisateur spécifique.
+ *
+ * Les lectures servant les réponses HTTP renvoient directement des TaskResponse
+ * (select new, voir TASK_RESPONSE) : pas d'entité hydratée, ni de copie pour le
+ * dirty checking, ni de proxy User. Les requêtes déclarées ici s'exécutent dans une
+ * transaction en lecture seule (pas de flush, connexion en lecture seule), sauf les
+ * UPDATE/DELETE qui déclarent la leur.
  */
+@Transactional(readOnly = true)
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
     /**
-     * Récupère toutes les tâches associées à un utilisateur donné.
-     * @param user l'utilisateur propriétaire des tâches
+     * Début des requêtes de projection : une TaskResponse construite à partir des colonnes.
+     */
+    String TASK_RESPONSE = "select new com.example.todoapp.payload.TaskResponse(t.id, t.title, "
+            + "t.description, t.completed, t.priority, t.createdAt, t.updatedAt, t.completedAt, t.userId) from Task t ";
+
+    /**
+     * Colonnes de la projection TaskRow, lues sur l'alias t (aussi dans un RETURNING).
+     */
+    String TASK_ROW_COLUMNS = "t.id as \"id\", t.title as \"title\", t.description as \"description\", "
+            + "t.completed as \"completed\", t.priority as \"priority\", t.created_at as \"createdAt\", "
+            + "t.updated_at as \"updatedAt\", t.completed_at as \"completedAt\", t.user_id as \"userId\"";
+
+    /**
+     * Début des requêtes natives en projection TaskRow (alias entre guillemets : PostgreSQL
+     * mettrait sinon les noms en minuscules).
+     */
+    String TASK_ROW = "select " + TASK_ROW_COLUMNS + " ";
+
+    /**
+     * Contrôle de propriétaire des écritures natives sur une tâche : :userId null pour un
+     * admin. La tâche est trouvée par sa clé primaire, le filtre ne porte que sur cette ligne.
+     */
+    String OWNED_BY = "(cast(:userId as bigint) is null or user_id = :userId)";
+
+    /**
+     * Projection d'une tâche lue par requête native, convertie en TaskResponse.
+     */
+    interface TaskRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        boolean getCompleted();
+        int getPriority();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        LocalDateTime getCompletedAt();
+        Long getUserId();
+
+        default TaskResponse toResponse() {
+            return new TaskResponse(getId(), getTitle(), getDescription(), getCompleted(), getPriority(),
+                    getCreatedAt(), getUpdatedAt(), getCompletedAt(), getUserId());
+        }
+    }
+
+    /**
+     * Projection (id utilisateur, nombre de tâches) pour les agrégats par utilisateur.
+     */
+    interface UserTaskCount {
+        Long getUserId();
+        long getCount();
+    }
+
+    /**
+     * Durée de complétion d'une tâche terminée, en secondes (HQL, traduit pour chaque base).
+     */
+    String DURATION = "((t.completedAt - t.createdAt) by second)";
+
+    /**
+     * Répartition des tâches terminées par durée de complétion (voir TimeToCompleteTotals).
+     */
+    String TIME_TO_COMPLETE = "select sum(case when " + DURATION + " < 3600 then 1 else 0 end) as underHour, "
+            + "sum(case when " + DURATION + " >= 3600 and " + DURATION + " < 86400 then 1 else 0 end) as underDay, "
+            + "sum(case when " + DURATION + " >= 86400 and " + DURATION + " < 604800 then 1 else 0 end) as underWeek, "
+            + "sum(case when " + DURATION + " >= 604800 and " + DURATION + " < 2592000 then 1 else 0 end) "
+            + "as underMonth, "
+            + "sum(case when " + DURATION + " >= 2592000 then 1 else 0 end) as longer, "
+            + "sum(" + DURATION + ") as seconds from Task t "
+            + "where t.completed = true and t.createdAt is not null and t.completedAt is not null";
+
+    /**
+     * Projection (priorité, statut, nombre de tâches) pour les statistiques.
+     */
+    interface PriorityCount {
+        int getPriority();
+        boolean getCompleted();
+        long getCount();
+    }
+
+    /**
+     * Projection des durées de complétion : nombre de tâches terminées en moins d'une heure,
+     * d'un jour, de 7 jours, de 30 jours, au-delà, et somme des durées en secondes
+     * (null sans tâche terminée).
+     */
+    interface TimeToCompleteTotals {
+        Long getUnderHour();
+        Long getUnderDay();
+        Long getUnderWeek();
+        Long getUnderMonth();
+        Long getLonger();
+        Long getSeconds();
+    }
+
+    /**
+     * Projection (id utilisateur, statut, nombre de tâches) pour les statistiques.
+     */
+    interface UserCompletedCount {
+        Long getUserId();
+        boolean getCompleted();
+        long getCount();
+    }
+
+    /**
+     * Récupère toutes les tâches d'un utilisateur à partir de son id, par projection.
+     * @param userId id de l'utilisateur propriétaire des tâches
      * @return liste de tâches
      */
-    List<Task> findByUser(User user);
+    @Query(TASK_RESPONSE + "where t.userId = :userId")
+    List<TaskResponse> findByUserId(@Param("userId") Long userId);
+
+    /**
+     * Récupère les tâches non terminées d'un utilisateur, par projection
+     * (index (user_id, completed, priority, id)).
+     * @param userId id de l'utilisateur propriétaire des tâches
+     * @return liste de tâches ouvertes
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = false")
+    List<TaskResponse> findOpenByUserId(@Param("userId") Long userId);
+
+    /**
+     * Récupère une page de tâches d'un utilisateur par pagination par clé, par projection.
+     * Le tri doit se terminer par l'id pour garantir un ordre stable.
+     * @param userId id de l'utilisateur propriétaire
+     * @param position position de reprise (début ou curseur précédent)
+     * @param sort tri appliqué
+     * @param limit taille maximale de la page
+     * @return fenêtre de tâches
+     */
+    Window<TaskResponse> findByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Idem findByUserId, filtré sur le statut completed.
+     * @param userId id de l'utilisateur propriétaire
+     * @param completed statut recherché
+     * @param position position de reprise (début ou curseur précédent)
+     * @param sort tri appliqué
+     * @param limit taille maximale de la page
+     * @return fenêtre de tâches
+     */
+    Window<TaskResponse> findByUserIdAndCompleted(Long userId, boolean completed,
+                                                  ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Clé du tri par titre : une tâche sans titre est classée comme un titre vide (le
+     * curseur peut ainsi reprendre au milieu des tâches sans titre). Index d'expression
+     * correspondants sur PostgreSQL : (user_id, completed, clé, id) et (user_id, clé, id)
+     * (migrations V5 et V7).
+     */
+    String TITLE_KEY = "coalesce(t.title, '')";
+
+    /**
+     * Reprise après la dernière tâche de la page précédente, par comparaison de lignes :
+     * une seule condition de parcours d'index, sans OR.
+     */
+    String AFTER_TITLE = "(" + TITLE_KEY + ", t.id) > (:title, :id) ";
+    String BEFORE_TITLE = "(" + TITLE_KEY + ", t.id) < (:title, :id) ";
+    String BY_TITLE_ASC = "order by " + TITLE_KEY + ", t.id";
+    String BY_TITLE_DESC = "order by " + TITLE_KEY + " desc, t.id desc";
+
+    /**
+     * Première page des tâches d'un utilisateur triées par titre croissant.
+     * Une requête par cas (première page ou suivante, avec ou sans filtre de statut) :
+     * chacune a un plan fixe sur son index, sans paramètre qui désactive une condition.
+     * @param userId id de l'utilisateur propriétaire
+     * @param limit taille maximale de la page
+     * @return tâches de la page
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId " + BY_TITLE_ASC)
+    List<TaskResponse> findFirstTitlePageAsc(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Page suivante des tâches d'un utilisateur triées par titre croissant.
+     * @param title clé de titre de la dernière tâche de la page précédente
+     * @param id id de la dernière tâche de la page précédente
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId and " + AFTER_TITLE + BY_TITLE_ASC)
+    List<TaskResponse> findNextTitlePageAsc(@Param("userId") Long userId, @Param("title") String title,
+                                            @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId " + BY_TITLE_DESC)
+    List<TaskResponse> findFirstTitlePageDesc(@Param("userId") Long userId, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and " + BEFORE_TITLE + BY_TITLE_DESC)
+    List<TaskResponse> findNextTitlePageDesc(@Param("userId") Long userId, @Param("title") String title,
+                                             @Param("id") Long id, Limit limit);
+
+    /**
+     * Mêmes requêtes, filtrées sur le statut completed.
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed " + BY_TITLE_ASC)
+    List<TaskResponse> findFirstTitlePageAsc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                             Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed and " + AFTER_TITLE
+            + BY_TITLE_ASC)
+    List<TaskResponse> findNextTitlePageAsc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                            @Param("title") String title, @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed " + BY_TITLE_DESC)
+    List<TaskResponse> findFirstTitlePageDesc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                              Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed and " + BEFORE_TITLE
+            + BY_TITLE_DESC)
+    List<TaskResponse> findNextTitlePageDesc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                             @Param("title") String title, @Param("id") Long id, Limit limit);
+
+    /**
+     * Page de tâches triées par titre, puis id, reprise après (afterTitle, afterId).
+     * Le tri par clé de Spring Data ne sait pas placer les titres nuls : voir TITLE_KEY.
+     * @param userId id de l'utilisateur propriétaire
+     * @param completed filtre sur le statut, null pour toutes les tâches
+     * @param direction sens du tri
+     * @param afterTitle titre de la dernière tâche de la page précédente (null si sans titre)
+     * @param afterId id de la dernière tâche de la page précédente, null pour la première page
+     * @param limit taille maximale de la page
+     * @return fenêtre de tâches
+     */
+    default Window<TaskResponse> findByUserIdOrderByTitle(Long userId, Boolean completed, Sort.Direction direction,
+                                                          String afterTitle, Long afterId, Limit limit) {
+        String title = afterTitle != null ? afterTitle : "";
+        Limit probe = Limit.of(limit.max() + 1); // une tâche de plus : y a-t-il une page suivante ?
+        boolean asc = direction.isAscending();
+        List<TaskResponse> rows;
+        if (afterId == null) {
+            rows = completed == null
+                    ? (asc ? findFirstTitlePageAsc(userId, probe) : findFirstTitlePageDesc(userId, probe))
+                    : (asc ? findFirstTitlePageAsc(userId, completed, probe)
+                            : findFirstTitlePageDesc(userId, completed, probe));
+        } else {
+            rows = completed == null
+                    ? (asc ? findNextTitlePageAsc(userId, title, afterId, probe)
+                            : findNextTitlePageDesc(userId, title, afterId, probe))
+                    : (asc ? findNextTitlePageAsc(userId, completed, title, afterId, probe)
+                            : findNextTitlePageDesc(userId, completed, title, afterId, probe));
+        }
+        return window(rows, limit);
+    }
+
+    /**
+     * Reprise du tri par priorité, par comparaison de lignes sur (user_id, [completed,]
+     * priority, id) : le tri par clé de Spring Data produit "priority > ? or (priority = ?
+     * and id > ?)", que PostgreSQL ne sait que filtrer dans les tâches de l'utilisateur.
+     */
+    String AFTER_PRIORITY = "(t.priority, t.id) > (:priority, :id) ";
+    String BEFORE_PRIORITY = "(t.priority, t.id) < (:priority, :id) ";
+    String BY_PRIORITY_ASC = "order by t.priority, t.id";
+    String BY_PRIORITY_DESC = "order by t.priority desc, t.id desc";
+
+    /**
+     * Pages des tâches d'un utilisateur triées par priorité, une requête par cas comme
+     * pour le tri par titre (index (user_id, priority, id) et (user_id, completed, priority, id)).
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId " + BY_PRIORITY_ASC)
+    List<TaskResponse> findFirstPriorityPageAsc(@Param("userId") Long userId, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and " + AFTER_PRIORITY + BY_PRIORITY_ASC)
+    List<TaskResponse> findNextPriorityPageAsc(@Param("userId") Long userId, @Param("priority") int priority,
+                                               @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId " + BY_PRIORITY_DESC)
+    List<TaskResponse> findFirstPriorityPageDesc(@Param("userId") Long userId, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and " + BEFORE_PRIORITY + BY_PRIORITY_DESC)
+    List<TaskResponse> findNextPriorityPageDesc(@Param("userId") Long userId, @Param("priority") int priority,
+                                                @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed " + BY_PRIORITY_ASC)
+    List<TaskResponse> findFirstPriorityPageAsc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                                Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed and " + AFTER_PRIORITY
+            + BY_PRIORITY_ASC)
+    List<TaskResponse> findNextPriorityPageAsc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                               @Param("priority") int priority, @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed " + BY_PRIORITY_DESC)
+    List<TaskResponse> findFirstPriorityPageDesc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                                 Limit limit);
+
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.completed = :completed and " + BEFORE_PRIORITY
+            + BY_PRIORITY_DESC)
+    List<TaskResponse> findNextPriorityPageDesc(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                                @Param("priority") int priority, @Param("id") Long id, Limit limit);
+
+    /**
+     * Page de tâches triées par priorité, puis id, reprise après (afterPriority, afterId).
+     * @param userId id de l'utilisateur propriétaire
+     * @param completed filtre sur le statut, null pour toutes les tâches
+     * @param direction sens du tri
+     * @param afterPriority priorité de la dernière tâche de la page précédente
+     * @param afterId id de la dernière tâche de la page précédente, null pour la première page
+     * @param limit taille maximale de la page
+     * @return fenêtre de tâches
+     */
+    default Window<TaskResponse> findByUserIdOrderByPriority(Long userId, Boolean completed, Sort.Direction direction,
+                                                             Integer afterPriority, Long afterId, Limit limit) {
+        Limit probe = Limit.of(limit.max() + 1);
+        boolean asc = direction.isAscending();
+        List<TaskResponse> rows;
+        if (afterId == null) {
+            rows = completed == null
+                    ? (asc ? findFirstPriorityPageAsc(userId, probe) : findFirstPriorityPageDesc(userId, probe))
+                    : (asc ? findFirstPriorityPageAsc(userId, completed, probe)
+                            : findFirstPriorityPageDesc(userId, completed, probe));
+        } else {
+            rows = completed == null
+                    ? (asc ? findNextPriorityPageAsc(userId, afterPriority, afterId, probe)
+                            : findNextPriorityPageDesc(userId, afterPriority, afterId, probe))
+                    : (asc ? findNextPriorityPageAsc(userId, completed, afterPriority, afterId, probe)
+                            : findNextPriorityPageDesc(userId, completed, afterPriority, afterId, probe));
+        }
+        return window(rows, limit);
+    }
+
+    /**
+     * Fenêtre d'au plus limit tâches, lues avec une tâche de plus pour savoir s'il y a une
+     * page suivante.
+     */
+    private static Window<TaskResponse> window(List<TaskResponse> rows, Limit limit) {
+        boolean hasNext = rows.size() > limit.max();
+        return Window.from(hasNext ? rows.subList(0, limit.max()) : rows, ScrollPosition::offset, hasNext);
+    }
+
+    /**
+     * Récupère les tâches d'un utilisateur créées ou modifiées après une date, par projection.
+     * @param userId id de l'utilisateur propriétaire
+     * @param since date de référence (exclue)
+     * @return liste de tâches triées par id
+     */
+    @Query(TASK_RESPONSE + "where t.userId = :userId and t.updatedAt > :since order by t.id")
+    List<TaskResponse> findByUserIdAndUpdatedAtGreaterThanOrderByIdAsc(@Param("userId") Long userId,
+                                                                       @Param("since") LocalDateTime since);
+
+    /**
+     * Récupère en une seule requête les tâches d'un lot d'utilisateurs, par projection.
+     * @param userIds ids des utilisateurs propriétaires
+     * @return liste de tâches triées par id
+     */
+    @Query(TASK_RESPONSE + "where t.userId in :userIds order by t.id")
+    List<TaskResponse> findByUserIdInOrderByIdAsc(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Compte les tâches d'un lot d'utilisateurs, sans charger les tâches.
+     * Les utilisateurs sans tâche n'apparaissent pas dans le résultat.
+     * @param userIds ids des utilisateurs
+     * @return nombre de tâches par utilisateur
+     */
+    @Query("select t.userId as userId, count(t) as count from Task t "
+            + "where t.userId in :userIds group by t.userId")
+    List<UserTaskCount> countByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * completed_at d'une mise à jour native, comme Task.setCompleted : fixé au passage à
+     * terminée (:updatedAt), conservé si la tâche l'était déjà, effacé à la réouverture.
+     */
+    String COMPLETED_AT = "completed_at = case when :completed then coalesce(u.completed_at, :updatedAt) end";
+
+    /**
+     * Met à jour une tâche en une seule requête PostgreSQL et renvoie son état précédent.
+     * La ligne est lue et verrouillée par la sous-requête de la même instruction : une
+     * écriture concurrente est attendue puis relue, l'état renvoyé est bien celui remplacé.
+     * @param userId propriétaire attendu, null pour un admin (voir OWNED_BY)
+     * @return état précédent, vide si la tâche est absente ou n'est pas à l'utilisateur
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "update tasks u set title = :title, description = :description, "
+            + "completed = :completed, priority = :priority, updated_at = :updatedAt, " + COMPLETED_AT + " "
+            + "from (select id, title, description, completed, priority, created_at, updated_at, completed_at, user_id "
+            + "from tasks where id = :id and " + OWNED_BY + " for update) t "
+            + "where u.id = t.id returning " + TASK_ROW_COLUMNS)
+    Optional<TaskRow> updateReturningPrevious(@Param("id") Long id, @Param("userId") Long userId,
+                                              @Param("title") String title, @Param("description") String description,
+                                              @Param("completed") boolean completed, @Param("priority") int priority,
+                                              @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Idem updateReturningPrevious pour H2 (benchmarks), qui n'a pas de RETURNING : l'état
+     * précédent est lu dans la table delta OLD TABLE de l'UPDATE, toujours en une instruction.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "select " + TASK_ROW_COLUMNS + " from old table ("
+            + "update tasks u set title = :title, description = :description, completed = :completed, "
+            + "priority = :priority, updated_at = :updatedAt, " + COMPLETED_AT + " "
+            + "where id = :id and " + OWNED_BY + ") t")
+    Optional<TaskRow> updateReturningPreviousH2(@Param("id") Long id, @Param("userId") Long userId,
+                                                @Param("title") String title, @Param("description") String description,
+                                                @Param("completed") boolean completed, @Param("priority") int priority,
+                                                @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Supprime une tâche et trace sa suppression (task_tombstones) en une seule requête
+     * PostgreSQL, et renvoie l'état supprimé.
+     * @param userId propriétaire attendu, null pour un admin (voir OWNED_BY)
+     * @param deletedAt date de la tombstone
+     * @return tâche supprimée, vide si elle est absente ou n'est pas à l'utilisateur
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "with t as (delete from tasks where id = :id and " + OWNED_BY
+            + " returning id, title, description, completed, priority, created_at, updated_at, completed_at, "
+            + "user_id), "
+            + "ts as (insert into task_tombstones (task_id, user_id, deleted_at) "
+            + "select id, user_id, :deletedAt from t) "
+            + "select " + TASK_ROW_COLUMNS + " from t")
+    Optional<TaskRow> deleteReturningWithTombstone(@Param("id") Long id, @Param("userId") Long userId,
+                                                   @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Supprime une tâche en une seule requête H2 et renvoie l'état supprimé (OLD TABLE) ;
+     * la tombstone est enregistrée à part.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "select " + TASK_ROW_COLUMNS + " from old table ("
+            + "delete from tasks where id = :id and " + OWNED_BY + ") t")
+    Optional<TaskRow> deleteReturningH2(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Supprime toutes les tâches d'un utilisateur en une seule requête, sans les charger.
+     * @param userId id du propriétaire
+     * @return nombre de tâches supprimées
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Task t where t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Lit et verrouille (SELECT ... FOR UPDATE) un lot de tâches avant leur suppression,
+     * par projection : propriétaires (contrôle d'accès, événements) et valeurs comptées
+     * par TaskStats. Verrouillées dans l'ordre des ids (deux lots concurrents ne peuvent
+     * pas s'attendre mutuellement), jusqu'à la fin de la transaction de l'appelant.
+     * @param ids ids des tâches
+     * @return tâches existantes
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(TASK_RESPONSE + "where t.id in :ids order by t.id")
+    List<TaskResponse> lockResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Charge et verrouille un lot de tâches à modifier, dans l'ordre des ids.
+     * @param ids ids des tâches
+     * @return tâches existantes
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids order by t.id")
+    List<Task> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Compte les tâches par priorité et statut (réconciliation de TaskStats).
+     * @return un nombre par couple (priorité, statut)
+     */
+    @Query("select t.priority as priority, t.completed as completed, count(t) as count from Task t "
+            + "group by t.priority, t.completed")
+    List<PriorityCount> countByPriorityAndCompleted();
+
+    /**
+     * Compte les tâches par utilisateur et statut (réconciliation de TaskStats).
+     * @return un nombre par couple (utilisateur, statut)
+     */
+    @Query("select t.userId as userId, t.completed as completed, count(t) as count from Task t "
+            + "group by t.userId, t.completed")
+    List<UserCompletedCount> countByUserIdAndCompleted();
+
+    /**
+     * Répartit les tâches terminées selon leur durée de complétion, de createdAt à
+     * completedAt (réconciliation de TaskStats).
+     * @return nombre de tâches par classe de durée, et somme des durées
+     */
+    @Query(TIME_TO_COMPLETE)
+    TimeToCompleteTotals sumTimeToComplete();
+
+    /**
+     * Compte les tâches d'un utilisateur par priorité et statut (avant sa suppression,
+     * pour les retirer de TaskStats).
+     * @param userId id de l'utilisateur
+     * @return un nombre par couple (priorité, statut)
+     */
+    @Query("select t.priority as priority, t.completed as completed, count(t) as count from Task t "
+            + "where t.userId = :userId group by t.priority, t.completed")
+    List<PriorityCount> countByPriorityAndCompletedForUser(@Param("userId") Long userId);
+
+    /**
+     * Même répartition que sumTimeToComplete, pour les tâches d'un utilisateur.
+     * @param userId id de l'utilisateur
+     * @return nombre de tâches par classe de durée, et somme des durées
+     */
+    @Query(TIME_TO_COMPLETE + " and t.userId = :userId")
+    TimeToCompleteTotals sumTimeToCompleteForUser(@Param("userId") Long userId);
+
+    /**
+     * Parcourt en flux les tâches d'un utilisateur, triées par id, pour l'export.
+     * Les lignes sont lues par paquets de 500 (fetch size JDBC) et projetées en
+     * TaskResponse : rien ne s'accumule dans le contexte de persistance.
+     * À consommer dans une transaction, puis fermer.
+     * @param userId id de l'utilisateur propriétaire
+     * @return flux de tâches
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TASK_RESPONSE + "where t.userId = :userId order by t.id")
+    Stream<TaskResponse> streamByUserId(@Param("userId") Long userId);
+
+    /**
+     * Parcourt en flux toutes les tâches, triées par id, pour l'export admin.
+     * Mêmes conditions d'utilisation que streamByUserId.
+     * @return flux de tâches
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TASK_RESPONSE + "order by t.id")
+    Stream<TaskResponse> streamAll();
 
     /**
-     * Récupère toutes les tâches associées à un utilisateur donné,
-     * triées par identifiant croissant.
-     * @param user l'utilisateur propriétaire des tâches
-     * @return liste de tâches triées
+     * Recherche plein texte PostgreSQL dans les tâches d'un utilisateur (index GIN composite
+     * user_id + search_vector, migration V12), triées par pertinence puis par id décroissant.
+     * Ne fonctionne que sur PostgreSQL : voir TaskSearchService.
+     * @param userId id de l'utilisateur propriétaire
+     * @param query requête tsquery (ex : "rapp:* & mens:*"), construite par TaskSearchService
+     * @param limit nombre maximal de résultats
+     * @return tâches trouvées, en projection (aucune entité chargée)
      */
-    List<Task> findByUserOrderByIdAsc(User user);
+    @Query(nativeQuery = true, value = TASK_ROW
+            + "from tasks t, to_tsquery('simple', :query) q "
+            + "where t.user_id = :userId and t.search_vector @@ q "
+            + "order by ts_rank(t.search_vector, q) desc, t.id desc limit :limit")
+    List<TaskRow> searchByUserId(@Param("userId") Long userId, @Param("query") String query, @Param("limit") int limit);
 }
@@ -0,0 +1,49 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository des traces de suppression de tâches (synchronisation delta).
+ */
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    /**
+     * Ids des tâches d'un utilisateur supprimées après une date.
+     * @param userId id du propriétaire
+     * @param since date de référence (exclue)
+     * @return ids des tâches supprimées
+     */
+    @Query("select t.taskId from TaskTombstone t where t.userId = :userId and t.deletedAt > :since")
+    List<Long> findDeletedTaskIds(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Trace en une requête la suppression de toutes les tâches d'un utilisateur (INSERT ...
+     * SELECT, sans charger les tâches). À appeler dans la transaction du DELETE.
+     * @param userId id du propriétaire
+     * @param deletedAt date de suppression
+     * @return nombre de traces enregistrées
+     */
+    @Modifying
+    @Transactional
+    @Query("insert into TaskTombstone (taskId, userId, deletedAt) "
+            + "select t.id, t.userId, :deletedAt from Task t where t.userId = :userId")
+    int recordDeletionsByUserId(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Purge les traces plus anciennes que la date donnée.
+     * @param before date limite (exclue)
+     * @return nombre de traces supprimées
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from TaskTombstone t where t.deletedAt < :before")
+    int purgeBefore(@Param("before") LocalDateTime before);
+}
@@ -1,16 +1,33 @@
 package com.example.todoapp.repository;
 
+import com.example.todoapp.model.Role;
 import com.example.todoapp.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository pour l'entité User.
  * Fournit des méthodes pour gérer la persistance des utilisateurs
- * et effectuer des recherches spécifiques par username, email ou refresh token.
+ * et effectuer des recherches spécifiques par username ou email.
  */
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Projection (id, username, rôle) pour les listes d'utilisateurs, sans charger l'entité.
+     */
+    interface UserSummary {
+        Long getId();
+        String getUsername();
+        Role getRole();
+    }
+
     /**
      * Recherche un utilisateur par son username.
      * @param username le nom d'utilisateur
@@ -33,16 +50,73 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     /**
-     * Recherche un utilisateur par son refresh token.
-     * @param refreshToken le token de rafraîchissement
+     * Recherche un utilisateur par son email.
+     * @param email l'email de l'utilisateur
      * @return un Optional contenant l'utilisateur si trouvé
      */
-    Optional<User> findByRefreshToken(String refreshToken);
+    Optional<User> findByEmail(String email);
 
     /**
-     * Recherche un utilisateur par son email.
-     * @param email l'email de l'utilisateur
+     * Recherche un utilisateur par son id, toujours sur le primaire (transaction en
+     * lecture-écriture) : sert avant une écriture (création de tâche, refresh token),
+     * qui ne doit pas dépendre du retard d'un réplica.
+     * @param id l'id de l'utilisateur
      * @return un Optional contenant l'utilisateur si trouvé
      */
-    Optional<User> findByEmail(String email);
+    @Override
+    @Transactional
+    Optional<User> findById(Long id);
+
+    /**
+     * Récupère les utilisateurs d'id strictement supérieur à afterId, triés par id,
+     * par projection (seules les colonnes id, username et role sont lues).
+     * Sert à parcourir la table par pagination par clé.
+     * @param afterId id du dernier utilisateur de la page précédente (0 pour commencer)
+     * @param limit taille maximale de la page
+     * @return liste d'utilisateurs
+     */
+    @Transactional(readOnly = true)
+    List<UserSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Lit la version de la liste de tâches d'un utilisateur (colonne users.task_version,
+     * hors entité).
+     * @param userId id de l'utilisateur
+     * @return version, null si l'utilisateur n'existe pas
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value = "select task_version from users where id = :userId")
+    Long findTaskVersion(@Param("userId") Long userId);
+
+    /**
+     * Augmente la version de la liste de tâches d'utilisateurs, dans la transaction de
+     * l'appelant.
+     * @param userIds ids des utilisateurs
+     * @return nombre d'utilisateurs modifiés
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "update users set task_version = task_version + 1 where id in :userIds")
+    int incrementTaskVersions(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Lit la version des tokens d'un utilisateur (colonne users.token_version, claim "ver"
+     * des JWT), toujours sur le primaire : un utilisateur tout juste créé serait absent d'un
+     * réplica en retard, donc vu comme supprimé.
+     * @param userId id de l'utilisateur
+     * @return version, null si l'utilisateur n'existe pas
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "select token_version from users where id = :userId")
+    Integer findTokenVersion(@Param("userId") Long userId);
+
+    /**
+     * Augmente la version des tokens d'un utilisateur : tous ses JWT déjà émis sont refusés.
+     * @param userId id de l'utilisateur
+     * @return nombre d'utilisateurs modifiés
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "update users set token_version = token_version + 1 where id = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
 }
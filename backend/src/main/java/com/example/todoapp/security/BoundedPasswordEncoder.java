@@ -0,0 +1,146 @@
+package com.example.todoapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder qui exécute le hachage (BCrypt) sur un pool dédié et borné.
+ *
+ * Login (via AuthenticationManager) et signup passent par ce bean. Le hachage,
+ * coûteux en CPU, tourne sur auth.hashing.threads threads avec une file de
+ * auth.hashing.queue-capacity demandes au plus. Au-delà, ou si la demande n'est pas
+ * traitée en auth.hashing.timeout-ms, la requête reçoit tout de suite un 503 avec
+ * Retry-After : une rafale de connexions ne peut occuper qu'un nombre borné de threads
+ * de requête et de cœurs, les lectures de tâches gardent leur latence.
+ *
+ * Métriques : auth.password.hash (durée du hachage, tag operation), auth.password.hash.wait
+ * (attente dans la file), auth.password.hash.queue (profondeur), auth.password.hash.active
+ * et auth.password.hash.rejected.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    /**
+     * @param delegate      encodeur réel (BCrypt)
+     * @param threads       nombre de threads de hachage
+     * @param queueCapacity nombre maximal de demandes en attente
+     * @param timeoutMs     attente maximale d'un résultat (file + hachage)
+     * @param registry      registre des métriques
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMs, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode").register(registry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches").register(registry);
+        this.waitTimer = Timer.builder("auth.password.hash.wait").register(registry);
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(registry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Arrête le pool (appelé à la fermeture du contexte).
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new OverloadedException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new OverloadedException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new OverloadedException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Pool de hachage saturé : 503 avec Retry-After, sans attendre.
+     */
+    public static class OverloadedException extends ResponseStatusException {
+
+        private static final String RETRY_AFTER_SECONDS = "1";
+
+        public OverloadedException() {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "Trop de connexions en cours, réessayez dans un instant");
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return headers;
+        }
+    }
+}
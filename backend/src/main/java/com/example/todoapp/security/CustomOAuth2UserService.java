@@ -45,7 +45,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         // Vérifie si l'utilisateur existe en base, sinon le crée
         User user = userRepository.findByEmail(email).orElseGet(() -> {
             User newUser = new User();
-            newUser.setUsername(username);
+            newUser.setUsername(availableUsername(username != null ? username : email));
             newUser.setEmail(email);
             newUser.setRole(Role.USER); // rôle par défaut pour les utilisateurs OAuth2
             return userRepository.save(newUser);
@@ -58,4 +58,15 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                 "email" // attribut principal utilisé comme identifiant
         );
     }
+
+    /**
+     * Le nom affiché Google n'est pas unique : suffixe un numéro si le username est déjà pris.
+     */
+    private String availableUsername(String name) {
+        String candidate = name;
+        for (int i = 2; userRepository.existsByUsername(candidate); i++) {
+            candidate = name + "-" + i;
+        }
+        return candidate;
+    }
 }
@@ -1,12 +1,16 @@
 package com.example.todoapp.security;
 
+import com.example.todoapp.config.RequestLoggingFilter;
+import com.example.todoapp.model.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,6 +22,12 @@ import java.io.IOException;
  * la présence et la validité d'un token JWT.
  *
  * Si le JWT est valide, il renseigne le SecurityContext avec l'utilisateur authentifié.
+ * Le principal est construit depuis les claims signés (uid, sub, role) : seule la
+ * version des tokens de l'utilisateur (claim "ver") est comparée à la base, au travers
+ * du cache de PrincipalCache.
+ *
+ * Rien n'est journalisé ici (ni en-tête, ni token) : l'id de l'utilisateur authentifié
+ * est seulement ajouté au MDC, pour les logs de la requête.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,7 +36,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils; // utilitaire pour manipuler les JWT
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService; // service pour charger l'utilisateur depuis la DB
+    private UserDetailsServiceImpl userDetailsService; // chargement depuis la DB (anciens tokens)
+
+    @Autowired
+    private PrincipalCache principalCache; // cache borné des principaux issus de la DB
 
     /**
      * Intercepte chaque requête HTTP.
@@ -46,26 +59,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Récupère le header Authorization
         String authHeader = request.getHeader("Authorization");
-        System.out.println("Auth header: " + authHeader);
 
-        String username = null;
-        String token = null;
-
-        // Vérifie que le header commence par "Bearer "
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7); // supprime "Bearer " pour ne garder que le token
-            username = jwtUtils.getUsernameFromJwtToken(token); // extrait le username depuis le JWT
-            System.out.println("Username from token: " + username);
-        }
+        // Vérifie qu'un token est présent et qu'aucune authentification n'est encore définie
+        boolean bearer = authHeader != null && authHeader.startsWith("Bearer ");
+        String token = bearer ? authHeader.substring(7) : resolveSseTicket(request);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-        // Si on a un username et qu'aucune authentification n'est encore définie
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Charge l'utilisateur depuis la base de données
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            System.out.println("UserDetails loaded: " + (userDetails != null));
+            // Valide le token (signature + expiration) et récupère ses claims en une fois
+            Claims claims = jwtUtils.getClaimsFromJwtToken(token);
+            // Un ticket SSE ne vaut pas access token, et inversement
+            boolean sseTicket = claims != null
+                    && JwtUtils.SCOPE_SSE.equals(claims.get(JwtUtils.CLAIM_SCOPE, String.class));
+            UserDetailsImpl userDetails = claims != null && sseTicket != bearer ? resolvePrincipal(claims) : null;
 
-            // Valide le token
-            if (jwtUtils.validateJwtToken(token)) {
+            if (userDetails != null) {
                 // Crée une authentification Spring Security
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -75,9 +82,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // Définit l'utilisateur authentifié dans le contexte de sécurité
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                System.out.println("Authentication set in context");
-            } else {
-                System.out.println("JWT invalid");
+                MDC.put(RequestLoggingFilter.MDC_USER_ID, String.valueOf(userDetails.getId()));
             }
         }
 
@@ -85,4 +90,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Sans en-tête Authorization, les flux SSE (GET .../events) lisent un ticket SSE dans le
+     * paramètre ticket : EventSource ne permet pas d'envoyer d'en-tête. L'access token n'est
+     * jamais lu dans l'URL (JwtUtils.generateSseTicket).
+     *
+     * @return le ticket, ou null s'il est absent
+     */
+    private static String resolveSseTicket(HttpServletRequest request) {
+        if ("GET".equals(request.getMethod()) && request.getRequestURI().endsWith("/events")) {
+            return request.getParameter("ticket");
+        }
+        return null;
+    }
+
+    /**
+     * Construit le principal depuis les claims du token.
+     *
+     * Les tokens émis avant l'ajout du claim "uid" sont résolus via la base,
+     * au travers du cache borné PrincipalCache.
+     *
+     * @return le principal, ou null si l'utilisateur est révoqué ou introuvable
+     */
+    private UserDetailsImpl resolvePrincipal(Claims claims) {
+        String username = claims.getSubject();
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtUtils.CLAIM_ROLE, String.class);
+        Integer tokenVersion = claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Integer.class);
+
+        if (userId != null && role != null) {
+            if (principalCache.isRevoked(userId, tokenVersion != null ? tokenVersion : 0)) {
+                return null; // utilisateur supprimé ou tokens révoqués depuis l'émission du token
+            }
+            return new UserDetailsImpl(userId, username, Role.valueOf(role));
+        }
+
+        try {
+            return principalCache.get(username,
+                    name -> (UserDetailsImpl) userDetailsService.loadUserByUsername(name));
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
@@ -1,53 +1,252 @@
 package com.example.todoapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe utilitaire pour gérer la création, la lecture et la validation des JWT.
  * Elle centralise toute la logique liée aux tokens pour l'authentification.
+ *
+ * Les clés HMAC sont dérivées une seule fois au démarrage et le parser (thread-safe)
+ * est partagé. Chaque token n'est parsé et vérifié qu'une fois : ses claims sont
+ * ensuite gardés dans un petit cache, indexé par l'empreinte SHA-256 du token,
+ * jusqu'à son expiration.
+ *
+ * Rotation des clés : les tokens sont signés avec la clé courante (jwt.secret) et
+ * portent son identifiant dans le header "kid". Les anciennes clés déclarées dans
+ * jwt.previous-secrets restent acceptées en vérification.
+ *
+ * Tickets SSE : EventSource ne permet pas d'envoyer d'en-tête, le flux /events reçoit donc
+ * son jeton dans l'URL, qui peut finir dans des logs. Ce jeton est un ticket dédié : claim
+ * "scope" = "sse", durée de vie courte (jwt.sse-ticket-expiration), accepté uniquement sur
+ * /events, et l'access token n'y est jamais accepté (voir JwtAuthenticationFilter).
+ *
+ * Métriques : auth.jwt.verify (durée d'une vérification complète, hors cache),
+ * auth.jwt.failures par cause, et jwt.verified (hits et misses du cache).
  */
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret; // clé secrète pour signer et vérifier les JWT
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_SCOPE = "scope";
+    public static final String SCOPE_SSE = "sse";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpirationMs; // durée de validité d’un token en millisecondes
+    private static final Logger log = LoggerFactory.getLogger(JwtUtils.class);
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS512;
+    private static final MessageDigest SHA256_PROTOTYPE = sha256();
+    private static final List<String> FAILURE_CAUSES =
+            List.of("expired", "signature", "malformed", "unsupported", "empty", "other");
+
+    private final long jwtExpirationMs; // durée de validité d’un token en millisecondes
+    private final long sseTicketExpirationMs; // durée de validité d'un ticket SSE
+    private final String currentKeyId;
+    private final SecretKey currentKey; // clé courante, utilisée pour signer
+    private final Map<String, SecretKey> verificationKeys = new HashMap<>(); // kid -> clé
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
+    private final Timer verifyTimer;
+    private final Map<String, Counter> failureCounters = new HashMap<>(); // cause -> compteur
+
+    /**
+     * @param jwtSecret        clé secrète courante, encodée en base64
+     * @param jwtExpirationMs  durée de validité d’un token en millisecondes
+     * @param sseTicketExpirationMs durée de validité d'un ticket SSE en millisecondes
+     * @param currentKeyId     identifiant (kid) de la clé courante
+     * @param previousSecrets  anciennes clés acceptées en vérification, au format "kid:base64,kid:base64"
+     * @param cacheMaxSize     nombre maximal de tokens vérifiés gardés en cache
+     * @param meterRegistry    registre des métriques
+     */
+    public JwtUtils(@Value("${jwt.secret}") String jwtSecret,
+                    @Value("${jwt.expiration}") long jwtExpirationMs,
+                    @Value("${jwt.sse-ticket-expiration:30000}") long sseTicketExpirationMs,
+                    @Value("${jwt.key-id:default}") String currentKeyId,
+                    @Value("${jwt.previous-secrets:}") String previousSecrets,
+                    @Value("${jwt.verified-cache.max-size:10000}") long cacheMaxSize,
+                    MeterRegistry meterRegistry) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.sseTicketExpirationMs = sseTicketExpirationMs;
+        this.currentKeyId = currentKeyId;
+        this.currentKey = toKey(jwtSecret);
+        this.verificationKeys.put(currentKeyId, currentKey);
+        for (String entry : previousSecrets.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("jwt.previous-secrets attend des entrées kid:secret");
+            }
+            verificationKeys.put(parts[0], toKey(parts[1]));
+        }
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Les tokens émis avant la rotation n'ont pas de kid : clé courante
+                        String kid = header.getKeyId();
+                        SecretKey key = kid == null ? currentKey : verificationKeys.get(kid);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Clé de signature inconnue : " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        // Chaque entrée expire en même temps que le token qu'elle représente
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+        this.verifyTimer = Timer.builder("auth.jwt.verify")
+                .description("Vérification complète d'un JWT (signature, claims), hors cache")
+                .register(meterRegistry);
+        for (String cause : FAILURE_CAUSES) {
+            failureCounters.put(cause, Counter.builder("auth.jwt.failures")
+                    .description("JWT refusés, par cause")
+                    .tag("cause", cause)
+                    .register(meterRegistry));
+        }
+    }
 
     /**
-     * Génère un JWT pour un utilisateur donné avec son rôle.
+     * Génère un JWT pour un utilisateur donné avec son id et son rôle.
+     * Ces claims suffisent à authentifier les requêtes suivantes sans accès à la base.
      *
-     * @param username l'identifiant unique de l'utilisateur
-     * @param role     le rôle de l'utilisateur (USER ou ADMIN)
+     * @param userId       l'id de l'utilisateur
+     * @param username     l'identifiant unique de l'utilisateur
+     * @param role         le rôle de l'utilisateur (USER ou ADMIN)
+     * @param tokenVersion version des tokens de l'utilisateur (users.token_version)
      * @return le token JWT signé
      */
-    public String generateJwtToken(String username, String role) {
+    public String generateJwtToken(Long userId, String username, String role, int tokenVersion) {
+        return builder(userId, username, role, tokenVersion, jwtExpirationMs).compact();
+    }
+
+    /**
+     * Génère un ticket SSE : mêmes claims que l'access token, plus le claim "scope",
+     * valable jwt.sse-ticket-expiration et seulement pour ouvrir un flux /events.
+     *
+     * @param userId       l'id de l'utilisateur
+     * @param username     l'identifiant unique de l'utilisateur
+     * @param role         le rôle de l'utilisateur (USER ou ADMIN)
+     * @param tokenVersion version des tokens de l'utilisateur (users.token_version)
+     * @return le ticket signé
+     */
+    public String generateSseTicket(Long userId, String username, String role, int tokenVersion) {
+        return builder(userId, username, role, tokenVersion, sseTicketExpirationMs)
+                .claim(CLAIM_SCOPE, SCOPE_SSE)
+                .compact();
+    }
+
+    /**
+     * @return durée de validité d'un ticket SSE en millisecondes
+     */
+    public long getSseTicketExpirationMs() {
+        return sseTicketExpirationMs;
+    }
+
+    private JwtBuilder builder(Long userId, String username, String role, int tokenVersion, long expirationMs) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, currentKeyId) // clé utilisée, pour la rotation
                 .setSubject(username) // identifiant de l’utilisateur
-                .claim("role", role)  // rôle injecté dans le JWT
+                .claim(CLAIM_USER_ID, userId) // id de l'utilisateur
+                .claim(CLAIM_ROLE, role)  // rôle injecté dans le JWT
+                .claim(CLAIM_TOKEN_VERSION, tokenVersion) // révocation (PrincipalCache)
                 .setIssuedAt(new Date()) // date de création
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs)) // date d'expiration
-                .signWith(SignatureAlgorithm.HS512, jwtSecret) // signature HMAC SHA-512
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs)) // date d'expiration
+                .signWith(currentKey, ALGORITHM); // signature HMAC SHA-512
+    }
+
+    /**
+     * Vérifie le JWT (signature et expiration) et retourne ses claims.
+     * Un token déjà vérifié et pas encore expiré est servi depuis le cache,
+     * sans recalcul du HMAC ni parsing JSON.
+     *
+     * @param token le JWT
+     * @return les claims du token, ou null si le token est invalide
+     */
+    public Claims getClaimsFromJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims);
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            String cause = failureCause(e);
+            failureCounters.get(cause).increment();
+            log.debug("JWT refusé : {}", cause); // jamais le token ni le message (claims)
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return null;
     }
 
     /**
      * Extrait le username depuis le JWT.
      *
      * @param token le JWT
-     * @return le username contenu dans le token
+     * @return le username contenu dans le token, ou null si le token est invalide
      */
     public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = getClaimsFromJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     /**
@@ -57,12 +256,58 @@ public class JwtUtils {
      * @return true si valide, false sinon
      */
     public boolean validateJwtToken(String token) {
+        return getClaimsFromJwtToken(token) != null;
+    }
+
+    /**
+     * Cause d'un refus, tag du compteur auth.jwt.failures.
+     * Une clé de signature inconnue (kid) compte comme "unsupported".
+     */
+    private static String failureCause(RuntimeException e) {
+        if (e instanceof ExpiredJwtException) {
+            return "expired";
+        }
+        if (e instanceof io.jsonwebtoken.security.SecurityException) {
+            return "signature";
+        }
+        if (e instanceof MalformedJwtException) {
+            return "malformed";
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return "unsupported";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "empty";
+        }
+        return "other";
+    }
+
+    /**
+     * Dérive la clé HMAC depuis le secret encodé en base64
+     * (même décodage que l'ancien setSigningKey(String)).
+     */
+    private static SecretKey toKey(String base64Secret) {
+        return new SecretKeySpec(Decoders.BASE64.decode(base64Secret), ALGORITHM.getJcaName());
+    }
+
+    /**
+     * Empreinte SHA-256 du token : le cache ne conserve pas les tokens en clair.
+     * Le MessageDigest est cloné depuis un prototype (plus rapide qu'un getInstance).
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = (MessageDigest) SHA256_PROTOTYPE.clone();
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 non clonable", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            System.out.println("JWT error: " + e.getMessage()); // log simple pour debug
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
         }
-        return false;
     }
 }
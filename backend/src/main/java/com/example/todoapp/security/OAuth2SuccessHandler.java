@@ -41,7 +41,8 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
 
         // Génération du JWT
-        String token = jwtUtils.generateJwtToken(user.getUsername(), user.getRole().name());
+        String token = jwtUtils.generateJwtToken(user.getId(), user.getUsername(), user.getRole().name(),
+                user.getTokenVersion());
 
         // Redirection vers le frontend avec token en query param
         response.sendRedirect(frontendUrl + "/oauth2/redirect?token=" + token);
@@ -0,0 +1,91 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache borné (taille + durée de vie) des principaux chargés depuis la base,
+ * et des versions de tokens des utilisateurs (révocation des JWT).
+ *
+ * Les requêtes authentifiées construisent normalement leur principal depuis les
+ * claims du JWT. Ce cache ne sert que lorsqu'un principal issu de la base reste
+ * nécessaire (ex : ancien token sans claim "uid").
+ *
+ * Révocation : chaque JWT porte la version des tokens de son utilisateur (claim "ver",
+ * colonne users.token_version). Un token dont la version n'est plus celle de la base, ou
+ * dont l'utilisateur a été supprimé, est refusé. La révocation est donc persistée : elle
+ * survit à un redémarrage et vaut pour toutes les instances. Les versions lues sont
+ * gardées auth.token-version.ttl-seconds : une révocation prend effet tout de suite sur
+ * l'instance qui l'a faite (invalidate()), au plus tard après ce délai sur les autres.
+ */
+@Component
+public class PrincipalCache {
+
+    // Version d'un utilisateur supprimé : aucun token ne correspond
+    private static final int DELETED = -1;
+
+    private final Cache<String, UserDetailsImpl> principals;
+    private final Cache<Long, Integer> tokenVersions;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public PrincipalCache(@Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${auth.token-version.ttl-seconds:30}") long tokenVersionTtlSeconds) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        // Une version évincée est simplement relue en base
+        this.tokenVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(tokenVersionTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Retourne le principal en cache, ou le charge via loader s'il est absent ou expiré.
+     *
+     * @param username le nom d'utilisateur
+     * @param loader   chargement depuis la base (peut lever UsernameNotFoundException)
+     * @return le principal de l'utilisateur
+     */
+    public UserDetailsImpl get(String username, Function<String, UserDetailsImpl> loader) {
+        return principals.get(username, loader);
+    }
+
+    /**
+     * Indique si un token de cette version a été révoqué.
+     *
+     * @param userId       id de l'utilisateur (claim "uid")
+     * @param tokenVersion version des tokens à l'émission (claim "ver", 0 si absent)
+     * @return true si l'utilisateur a été supprimé ou ses tokens révoqués après l'émission
+     */
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        int current = tokenVersions.get(userId, id -> {
+            Integer version = userRepository.findTokenVersion(id);
+            return version != null ? version : DELETED;
+        });
+        return current != tokenVersion; // DELETED ne correspond à aucune version
+    }
+
+    /**
+     * À appeler après le commit d'une révocation (RefreshTokenService.revokeAll) ou de la
+     * suppression d'un utilisateur : la version est relue en base à la requête suivante.
+     *
+     * @param user l'utilisateur concerné
+     */
+    public void invalidate(User user) {
+        principals.invalidate(user.getUsername());
+        tokenVersions.invalidate(user.getId());
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.todoapp.security;
 
+import jakarta.servlet.DispatcherType;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.*;
@@ -51,11 +54,16 @@ public class SecurityConfig {
 
     /**
      * Bean pour encoder les mots de passe avec BCrypt
-     * (utilisé lors de la création d'utilisateur)
+     * (utilisé lors de la création d'utilisateur et du login).
+     * Le hachage tourne sur un pool dédié et borné, voir BoundedPasswordEncoder.
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${auth.hashing.threads:2}") int threads,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.hashing.timeout-ms:5000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, timeoutMs, meterRegistry);
     }
 
     /**
@@ -95,6 +103,14 @@ public class SecurityConfig {
                         // Endpoints OAuth2 (Google) publics
                         .requestMatchers("/oauth2/**").permitAll()
 
+                        // Santé et métriques : servies sur le port de gestion (management.server.port),
+                        // joignable uniquement depuis le réseau privé
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
+                        // Dispatches d'erreur et de fin de réponse asynchrone (streaming) :
+                        // la requête d'origine a déjà été autorisée
+                        .dispatcherTypeMatchers(DispatcherType.ERROR, DispatcherType.ASYNC).permitAll()
+
                         // Toutes les autres requêtes nécessitent un JWT
                         .anyRequest().authenticated()
                 )
@@ -1,40 +1,21 @@
 package com.example.todoapp.security;
 
-import com.example.todoapp.repository.TaskRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.todoapp.model.Role;
 import org.springframework.stereotype.Component;
 
 /**
  * Composant Spring qui gère la sécurité au niveau des tâches.
- * Permet de vérifier si un utilisateur peut accéder ou modifier une tâche spécifique.
+ * Le contrôle de propriétaire d'une tâche est porté par la requête qui l'écrit
+ * (TaskSyncService) : seul le rôle est vérifié ici.
  */
 @Component
 public class TaskSecurity {
 
-    @Autowired
-    private TaskRepository taskRepository; // accès aux tâches en DB
-
     /**
-     * Vérifie si l'utilisateur peut accéder à la tâche avec l'id donné.
-     *
-     * Règles :
-     *   1. Un utilisateur avec le rôle ADMIN a toujours accès.
-     *   2. Sinon, l'utilisateur ne peut accéder qu'aux tâches qu'il possède.
-     *
-     * @param taskId     l'identifiant de la tâche
      * @param userDetails les informations de l'utilisateur courant
-     * @return true si l'utilisateur peut accéder à la tâche, false sinon
+     * @return true si l'utilisateur a le rôle ADMIN
      */
-    public boolean canAccessTask(Long taskId, UserDetailsImpl userDetails) {
-        return userDetails
-                .getAuthorities()
-                .stream()
-                // si l'utilisateur est ADMIN → accès autorisé
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"))
-                ||
-                // sinon, vérifier que la tâche appartient bien à l'utilisateur
-                taskRepository.findById(taskId)
-                        .map(task -> task.getUser().getId().equals(userDetails.getId()))
-                        .orElse(false); // si la tâche n'existe pas → accès refusé
+    public boolean isAdmin(UserDetailsImpl userDetails) {
+        return userDetails.getRole() == Role.ADMIN;
     }
 }
@@ -1,5 +1,6 @@
 package com.example.todoapp.security;
 
+import com.example.todoapp.model.Role;
 import com.example.todoapp.model.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,13 +14,37 @@ import java.util.List;
  *
  * Permet à Spring Security de récupérer les informations nécessaires
  * sur l'utilisateur authentifié (username, mot de passe, rôles, etc.).
+ *
+ * Peut être construit depuis l'entité User (login) ou directement depuis
+ * les claims d'un JWT (requêtes authentifiées, sans accès à la base).
  */
 public class UserDetailsImpl implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
 
     public UserDetailsImpl(User user) {
-        this.user = user;
+        this(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    /**
+     * Construit un principal à partir des claims signés d'un JWT.
+     * Le mot de passe n'est pas connu (et pas nécessaire) dans ce cas.
+     */
+    public UserDetailsImpl(Long id, String username, Role role) {
+        this(id, username, null, role);
+    }
+
+    private UserDetailsImpl(Long id, String username, String password, Role role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        // Prefixe "ROLE_" nécessaire pour Spring Security
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
     /**
@@ -28,18 +53,17 @@ public class UserDetailsImpl implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Prefixe "ROLE_" nécessaire pour Spring Security
-        return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     // Les méthodes ci-dessous permettent de dire que le compte est actif
@@ -58,5 +82,10 @@ public class UserDetailsImpl implements UserDetails {
     /**
      * Retourne l'ID de l'utilisateur, utile pour récupérer ses données en DB.
      */
-    public Long getId() { return user.getId(); }
+    public Long getId() { return id; }
+
+    /**
+     * Retourne le rôle de l'utilisateur.
+     */
+    public Role getRole() { return role; }
 }
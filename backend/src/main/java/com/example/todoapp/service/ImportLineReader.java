@@ -0,0 +1,141 @@
+package com.example.todoapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture ligne à ligne d'un fichier importé, avec une taille de ligne bornée
+ * pour que la mémoire utilisée ne dépende pas du contenu du fichier.
+ *
+ * Fournit aussi le découpage d'un enregistrement CSV (RFC 4180 : champs entre
+ * guillemets, guillemets doublés, retours à la ligne dans un champ).
+ */
+class ImportLineReader {
+
+    /**
+     * Ligne ou enregistrement rejeté (trop long, guillemet non fermé).
+     * La lecture peut reprendre à la ligne suivante.
+     */
+    static class InvalidLineException extends IOException {
+        InvalidLineException(String message) {
+            super(message);
+        }
+
+        static InvalidLineException tooLong(int maxLength) {
+            return new InvalidLineException("Ligne trop longue (" + maxLength + " caractères au maximum)");
+        }
+    }
+
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder buffer;
+    private int lineNumber;
+
+    ImportLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+        this.buffer = new StringBuilder(256);
+    }
+
+    /**
+     * @return le numéro (à partir de 1) de la dernière ligne lue
+     */
+    int getLineNumber() { return lineNumber; }
+
+    /**
+     * Lit la ligne suivante, sans le séparateur (\n ou \r\n).
+     *
+     * @return la ligne, ou null en fin de fichier
+     * @throws InvalidLineException si la ligne dépasse la taille maximale
+     */
+    String readLine() throws IOException {
+        buffer.setLength(0);
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (buffer.length() < maxLength) {
+                buffer.append((char) c);
+            } else {
+                tooLong = true; // on consomme la fin de ligne sans la garder
+            }
+        }
+        if (c == -1 && buffer.length() == 0 && !tooLong) {
+            return null;
+        }
+        lineNumber++;
+        if (tooLong) {
+            throw InvalidLineException.tooLong(maxLength);
+        }
+        int end = buffer.length();
+        if (end > 0 && buffer.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return buffer.substring(0, end);
+    }
+
+    /**
+     * Lit l'enregistrement CSV suivant, qui peut s'étendre sur plusieurs lignes
+     * si un champ entre guillemets contient un retour à la ligne.
+     *
+     * @return les champs de l'enregistrement, ou null en fin de fichier
+     * @throws InvalidLineException si l'enregistrement est trop long ou mal formé
+     */
+    List<String> readCsvRecord() throws IOException {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (hasOpenQuote(record)) {
+            String next = readLine();
+            if (next == null) {
+                throw new InvalidLineException("Guillemet non fermé");
+            }
+            if (record.length() + next.length() + 1 > maxLength) {
+                throw InvalidLineException.tooLong(maxLength);
+            }
+            record.append('\n').append(next);
+        }
+        return splitCsv(record);
+    }
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    private static List<String> splitCsv(CharSequence record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"'); // guillemet doublé = guillemet littéral
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
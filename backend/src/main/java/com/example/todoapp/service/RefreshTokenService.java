@@ -0,0 +1,156 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.model.RefreshToken;
+import com.example.todoapp.repository.RefreshTokenRepository;
+import com.example.todoapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Émission et rotation des refresh tokens, un jeton actif par appareil.
+ *
+ * Le jeton est une valeur aléatoire de 256 bits ; seule son empreinte SHA-256 est
+ * stockée et sert de clé de recherche. Un hachage lent (BCrypt) est inutile ici :
+ * l'entropie du jeton rend toute attaque par dictionnaire impossible.
+ *
+ * Rotation : chaque rafraîchissement consomme le jeton et en émet un nouveau dans la
+ * même famille. Un jeton déjà consommé présenté à nouveau signale un vol : toute la
+ * famille est révoquée et l'appareil concerné doit se reconnecter. Une réutilisation
+ * dans les auth.refresh.reuse-grace-ms suivant la rotation est tolérée (plusieurs
+ * requêtes du même client qui rafraîchissent en même temps).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.refresh.ttl-days:30}")
+    private long ttlDays;
+
+    @Value("${auth.refresh.reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
+    @Value("${auth.refresh.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+
+    /**
+     * Résultat d'une rotation : propriétaire et nouveau jeton.
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Émet le jeton d'une nouvelle connexion (nouvelle famille).
+     *
+     * @param userId id de l'utilisateur connecté
+     * @return jeton en clair, à renvoyer au client
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consomme un jeton et en émet un nouveau dans la même famille.
+     * La révocation d'une famille est conservée malgré l'exception levée.
+     *
+     * @param rawToken jeton présenté par le client
+     * @return propriétaire et nouveau jeton
+     * @throws ResponseStatusException 401 si le jeton est inconnu, expiré ou réutilisé
+     */
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw invalid();
+        }
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(RefreshTokenService::invalid);
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getExpiresAt().isBefore(now)) {
+            throw invalid();
+        }
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            // Déjà consommé (ou révoqué entre-temps)
+            LocalDateTime usedAt = refreshTokenRepository.findUsedAt(token.getId());
+            if (usedAt == null || usedAt.isBefore(now.minus(Duration.ofMillis(reuseGraceMs)))) {
+                refreshTokenRepository.deleteByFamilyId(token.getFamilyId());
+                throw invalid();
+            }
+        }
+        return new Rotation(token.getUserId(), create(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Révoque les jetons de tous les appareils d'un utilisateur : ses refresh tokens, et
+     * ses JWT déjà émis (version des tokens augmentée, voir PrincipalCache).
+     * À appeler dans une transaction, suivie de PrincipalCache.invalidate après le commit.
+     *
+     * @param userId id de l'utilisateur
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        userRepository.incrementTokenVersion(userId);
+    }
+
+    /**
+     * Supprime les jetons expirés par lots de auth.refresh.sweep-batch-size, chaque lot
+     * dans sa propre transaction : pas de long verrou ni de grosse transaction.
+     */
+    @Scheduled(cron = "${auth.refresh.sweep-cron:0 15 * * * *}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids;
+        do {
+            ids = refreshTokenRepository.findExpiredIds(now, Limit.of(sweepBatchSize));
+            if (!ids.isEmpty()) {
+                refreshTokenRepository.deleteByIdIn(ids);
+            }
+        } while (ids.size() == sweepBatchSize);
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), userId, familyId, now, now.plusDays(ttlDays)));
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 est toujours disponible
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token invalide");
+    }
+}
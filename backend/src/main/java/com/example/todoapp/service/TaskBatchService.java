@@ -0,0 +1,289 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.User;
+import com.example.todoapp.payload.BatchItemResult;
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.repository.TaskRepository;
+import com.example.todoapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service de création, mise à jour et suppression de tâches en lot.
+ *
+ * Chaque lot est traité dans une seule transaction. Les éléments invalides ou
+ * non autorisés sont signalés individuellement (BatchItemResult) sans bloquer
+ * les autres ; les INSERT et UPDATE sont regroupés en batch JDBC par Hibernate
+ * (hibernate.jdbc.batch_size) et les suppressions faites en une requête.
+ * Un TaskEvent est publié par tâche modifiée, diffusé après le commit du lot ; un
+ * import publie un seul événement "resync" par lot (importAll).
+ */
+@Service
+public class TaskBatchService {
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Vérifie les champs d'une tâche reçue du client.
+     *
+     * @param request données de la tâche
+     * @return le message d'erreur, ou null si la tâche est valide
+     */
+    public static String validate(Task request) {
+        if (request == null) {
+            return "Tâche vide";
+        }
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            return "Titre obligatoire";
+        }
+        if (request.getPriority() < 1 || request.getPriority() > 3) {
+            return "Priorité invalide (1 à 3)";
+        }
+        return null;
+    }
+
+    /**
+     * Vérifie les champs d'une tâche reçue seule (POST ou PUT d'une tâche), comme validate
+     * pour un élément de lot.
+     *
+     * @param request données de la tâche
+     * @throws ResponseStatusException 400 si la tâche est invalide
+     */
+    public static void requireValid(Task request) {
+        String error = validate(request);
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+    }
+
+    /**
+     * Construit une nouvelle tâche à partir des données du client :
+     * titre, description, priorité, non complétée, rattachée à owner.
+     *
+     * @param request données de la tâche
+     * @param owner   utilisateur propriétaire
+     * @return la tâche à sauvegarder
+     */
+    public static Task newTask(Task request, User owner) {
+        Task task = new Task();
+        task.setTitle(request.getTitle());
+        task.setDescription(request.getDescription());
+        task.setPriority(request.getPriority());
+        task.setCompleted(false); // nouvelle tâche non complétée
+        task.setUser(owner);
+        return task;
+    }
+
+    /**
+     * Crée une tâche, dans une transaction : l'événement et la version de la liste du
+     * propriétaire sont écrits avec elle.
+     *
+     * @param owner   utilisateur propriétaire (référence suffisante)
+     * @param request données de la tâche
+     * @return la tâche créée
+     * @throws ResponseStatusException 400 si la tâche est invalide
+     */
+    @Transactional
+    public TaskResponse create(User owner, Task request) {
+        requireValid(request);
+        TaskResponse response = new TaskResponse(taskRepository.save(newTask(request, owner)));
+        eventPublisher.publishEvent(TaskEvent.created(response));
+        return response;
+    }
+
+    /**
+     * Crée un lot de tâches pour un utilisateur.
+     *
+     * @param userId   id de l'utilisateur propriétaire
+     * @param requests tâches à créer
+     * @return un résultat par élément, dans l'ordre de la requête
+     */
+    @Transactional
+    public List<BatchItemResult> createAll(Long userId, List<Task> requests) {
+        List<BatchItemResult> results = new ArrayList<>(requests.size());
+        insertAll(userId, requests, results)
+                .forEach(response -> eventPublisher.publishEvent(TaskEvent.created(response)));
+        return results;
+    }
+
+    /**
+     * Crée un lot de tâches importées : comme createAll, mais un seul TaskEvent
+     * "resync" pour le lot au lieu d'un par tâche.
+     *
+     * @param userId   id de l'utilisateur propriétaire
+     * @param requests tâches à créer
+     * @return un résultat par élément, dans l'ordre du lot
+     */
+    @Transactional
+    public List<BatchItemResult> importAll(Long userId, List<Task> requests) {
+        List<BatchItemResult> results = new ArrayList<>(requests.size());
+        List<TaskResponse> created = insertAll(userId, requests, results);
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(TaskEvent.resync(userId, created));
+        }
+        return results;
+    }
+
+    /**
+     * Valide et insère les tâches, INSERT envoyés en batch.
+     *
+     * @param results reçoit un résultat par élément, dans l'ordre de requests
+     * @return les tâches créées
+     */
+    private List<TaskResponse> insertAll(Long userId, List<Task> requests, List<BatchItemResult> results) {
+        User owner = userRepository.getReferenceById(userId);
+        List<Task> toSave = new ArrayList<>(requests.size());
+        List<Integer> savedIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results.add(BatchItemResult.failure(i, 400, null, error));
+            } else {
+                toSave.add(newTask(requests.get(i), owner));
+                savedIndexes.add(i);
+                results.add(null); // complété après l'insertion
+            }
+        }
+
+        List<Task> saved = taskRepository.saveAll(toSave);
+        taskRepository.flush(); // envoie les INSERT en batch avant de répondre
+        List<TaskResponse> created = new ArrayList<>(saved.size());
+        for (int j = 0; j < saved.size(); j++) {
+            int index = savedIndexes.get(j);
+            TaskResponse response = new TaskResponse(saved.get(j));
+            results.set(index, BatchItemResult.success(index, 201, response));
+            created.add(response);
+        }
+        return created;
+    }
+
+    /**
+     * Met à jour un lot de tâches. Chaque élément doit porter l'id de la tâche.
+     * Les tâches sont chargées et verrouillées en une requête (SELECT ... FOR UPDATE :
+     * l'état précédent publié reste exact), les UPDATE envoyés en batch.
+     *
+     * @param userId   id de l'utilisateur connecté
+     * @param admin    true si l'utilisateur est admin (pas de contrôle de propriétaire)
+     * @param requests nouvelles données des tâches
+     * @return un résultat par élément, dans l'ordre de la requête
+     */
+    @Transactional
+    public List<BatchItemResult> updateAll(Long userId, boolean admin, List<Task> requests) {
+        List<Long> ids = requests.stream()
+                .filter(Objects::nonNull)
+                .map(Task::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Task> existing = taskRepository.lockAllByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        List<BatchItemResult> results = new ArrayList<>(requests.size());
+        Map<Integer, Task> updated = new LinkedHashMap<>();
+        Map<Long, TaskResponse> previous = new HashMap<>(); // état avant modification (TaskStats)
+        for (int i = 0; i < requests.size(); i++) {
+            Task request = requests.get(i);
+            Long id = request != null ? request.getId() : null;
+            if (id == null) {
+                results.add(BatchItemResult.failure(i, 400, null, "Id obligatoire"));
+                continue;
+            }
+            Task task = existing.get(id);
+            if (task == null) {
+                results.add(BatchItemResult.failure(i, 404, id, "Tâche introuvable"));
+                continue;
+            }
+            if (!admin && !userId.equals(task.getUserId())) {
+                results.add(BatchItemResult.failure(i, 403, id, "Accès refusé"));
+                continue;
+            }
+            String error = validate(request);
+            if (error != null) {
+                results.add(BatchItemResult.failure(i, 400, id, error));
+                continue;
+            }
+            previous.putIfAbsent(id, new TaskResponse(task));
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setCompleted(request.isCompleted());
+            task.setPriority(request.getPriority());
+            updated.put(i, task);
+            results.add(null); // complété après le flush (updatedAt)
+        }
+        taskRepository.flush(); // UPDATE en batch (dirty checking)
+        updated.forEach((i, task) -> {
+            TaskResponse response = new TaskResponse(task);
+            results.set(i, BatchItemResult.success(i, 200, response));
+            // Un id répété : les occurrences suivantes ne changent plus rien
+            TaskResponse before = previous.remove(task.getId());
+            eventPublisher.publishEvent(TaskEvent.updated(response, before != null ? before : response));
+        });
+        return results;
+    }
+
+    /**
+     * Supprime un lot de tâches, lues et verrouillées puis supprimées en une seule
+     * requête DELETE ... WHERE id IN (...), et trace les suppressions pour la synchronisation delta.
+     *
+     * @param userId id de l'utilisateur connecté
+     * @param admin  true si l'utilisateur est admin (pas de contrôle de propriétaire)
+     * @param ids    ids des tâches à supprimer
+     * @return un résultat par élément, dans l'ordre de la requête
+     */
+    @Transactional
+    public List<BatchItemResult> deleteAll(Long userId, boolean admin, List<Long> ids) {
+        Map<Long, TaskResponse> existing = taskRepository
+                .lockResponsesByIdIn(ids.stream().filter(Objects::nonNull).toList())
+                .stream()
+                .collect(Collectors.toMap(TaskResponse::getId, Function.identity()));
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        Map<Long, TaskResponse> toDelete = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            TaskResponse task = id != null ? existing.get(id) : null;
+            if (task == null) {
+                results.add(BatchItemResult.failure(i, 404, id, "Tâche introuvable"));
+            } else if (!admin && !userId.equals(task.getUserId())) {
+                results.add(BatchItemResult.failure(i, 403, id, "Accès refusé"));
+            } else {
+                toDelete.putIfAbsent(id, task); // un id répété n'est supprimé qu'une fois
+                results.add(BatchItemResult.deleted(i, id));
+            }
+        }
+        if (!toDelete.isEmpty()) {
+            taskSyncService.recordDeletions(toDelete.values());
+            taskRepository.deleteAllByIdInBatch(toDelete.keySet());
+            toDelete.values().forEach(task -> eventPublisher.publishEvent(TaskEvent.deleted(task)));
+        }
+        return results;
+    }
+}
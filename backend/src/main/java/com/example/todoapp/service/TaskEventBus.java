@@ -0,0 +1,251 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bus d'événements en mémoire qui pousse les changements de tâches aux clients SSE.
+ *
+ * Les TaskEvent publiés par les services et contrôleurs sont reçus après le commit
+ * de la transaction (ou immédiatement hors transaction). La publication ne bloque
+ * jamais : chaque abonné a sa propre file bornée (tasks.events.buffer-size), vidée
+ * par une tâche d'envoi sur un thread virtuel. Un envoi lent ne retarde donc que
+ * son propre abonné.
+ *
+ * Si la file d'un abonné est pleine, elle est vidée et remplacée par un événement
+ * "resync", puis la connexion est fermée : le client se reconnecte et se resynchronise
+ * avec GET /api/tasks?since=. Un import envoie aussi un "resync" par lot enregistré,
+ * sans fermer la connexion. Un commentaire "ping" est envoyé périodiquement pour
+ * détecter les connexions coupées, retirées dès le premier envoi en échec.
+ */
+@Component
+public class TaskEventBus {
+
+    private static final Object HEARTBEAT = new Object();
+    private static final Object RESYNC = new Object();
+
+    private final Map<Long, List<Subscriber>> userSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> adminSubscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final int bufferSize;
+    private final int maxPerUser;
+    private final long timeoutMs;
+
+    /**
+     * @param bufferSize nombre maximal d'événements en attente par abonné
+     * @param maxPerUser nombre maximal de connexions par utilisateur (la plus ancienne est fermée)
+     * @param timeoutMs  durée de vie d'une connexion, le client se reconnecte ensuite
+     */
+    public TaskEventBus(@Value("${tasks.events.buffer-size:256}") int bufferSize,
+                        @Value("${tasks.events.max-per-user:5}") int maxPerUser,
+                        @Value("${tasks.events.timeout-ms:1800000}") long timeoutMs) {
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Ouvre un flux des changements des tâches d'un utilisateur.
+     *
+     * @param userId id de l'utilisateur connecté
+     * @return l'emitter SSE à renvoyer par le contrôleur
+     */
+    public SseEmitter subscribe(Long userId) {
+        Subscriber subscriber = new Subscriber(userId);
+        Subscriber[] evicted = new Subscriber[1];
+        userSubscribers.compute(userId, (id, list) -> {
+            List<Subscriber> subscribers = list != null ? list : new CopyOnWriteArrayList<>();
+            subscribers.add(subscriber);
+            if (subscribers.size() > maxPerUser) {
+                evicted[0] = subscribers.remove(0);
+            }
+            return subscribers;
+        });
+        if (evicted[0] != null) {
+            evicted[0].close();
+        }
+        return subscriber.start();
+    }
+
+    /**
+     * Ouvre un flux des changements de toutes les tâches (admin).
+     *
+     * @return l'emitter SSE à renvoyer par le contrôleur
+     */
+    public SseEmitter subscribeAll() {
+        Subscriber subscriber = new Subscriber(null);
+        adminSubscribers.add(subscriber);
+        return subscriber.start();
+    }
+
+    /**
+     * Reçoit les événements publiés, une fois la transaction validée.
+     * Un utilisateur supprimé reçoit l'événement "userDeleted", puis ses flux sont fermés.
+     *
+     * @param event changement de tâche
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        List<Subscriber> subscribers = event.getUserId() != null ? userSubscribers.get(event.getUserId()) : null;
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+        adminSubscribers.forEach(subscriber -> subscriber.offer(event));
+        if (event.isUserDeleted()) {
+            disconnect(event.getUserId());
+        }
+    }
+
+    /**
+     * Ferme les flux d'un utilisateur (ex : utilisateur supprimé).
+     *
+     * @param userId id de l'utilisateur
+     */
+    public void disconnect(Long userId) {
+        List<Subscriber> subscribers = userSubscribers.remove(userId);
+        if (subscribers != null) {
+            subscribers.forEach(Subscriber::close);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        userSubscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+        adminSubscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    /**
+     * Ferme les flux dès le début de l'arrêt : sinon l'arrêt progressif de Tomcat
+     * attendrait la fin de ces requêtes toujours ouvertes.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        userSubscribers.values().forEach(list -> list.forEach(Subscriber::close));
+        adminSubscribers.forEach(Subscriber::close);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.userId == null) {
+            adminSubscribers.remove(subscriber);
+            return;
+        }
+        userSubscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Connexion SSE : file bornée, vidée par au plus une tâche d'envoi à la fois
+     * (les événements d'un abonné restent ordonnés).
+     */
+    private final class Subscriber {
+
+        private final Long userId; // null pour un abonné admin (toutes les tâches)
+        private final SseEmitter emitter = new SseEmitter(timeoutMs);
+        private final ArrayBlockingQueue<Object> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId) {
+            this.userId = userId;
+        }
+
+        private SseEmitter start() {
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+            offer(HEARTBEAT); // envoie les en-têtes tout de suite
+            return emitter;
+        }
+
+        private void offer(Object item) {
+            if (closed.get()) {
+                return;
+            }
+            // Verrou court, sans E/S : RESYNC trouve toujours sa place dans la file vidée
+            synchronized (queue) {
+                if (!queue.offer(item)) {
+                    // Client trop lent : on abandonne ses événements, il devra se resynchroniser
+                    queue.clear();
+                    queue.offer(RESYNC);
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object item;
+                while (!closed.get() && (item = queue.poll()) != null) {
+                    send(item);
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Un événement a pu arriver entre le dernier poll et la remise à false
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Object item) {
+            try {
+                if (item == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else if (item == RESYNC) {
+                    emitter.send(SseEmitter.event().name("resync").data(""));
+                    close();
+                } else {
+                    TaskEvent event = (TaskEvent) item;
+                    emitter.send(SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(); // connexion coupée ou déjà terminée
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove(this);
+                queue.clear();
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // déjà terminé
+                }
+            }
+        }
+    }
+}
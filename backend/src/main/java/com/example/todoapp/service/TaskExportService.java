@@ -0,0 +1,128 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export de tâches en CSV ou NDJSON, écrit au fil de la lecture.
+ *
+ * Les tâches sont lues via un Stream (curseur JDBC, fetch size 500) dans une
+ * transaction en lecture seule, projetées en TaskResponse : aucune entité n'entre dans
+ * le contexte de persistance. La sortie est vidée tous les 500 enregistrements : la
+ * mémoire reste constante quel que soit le nombre de tâches exportées.
+ *
+ * Le CSV produit (title, description, priority...) est relisible par l'import.
+ */
+@Service
+public class TaskExportService {
+
+    private static final int FLUSH_INTERVAL = 500;
+    private static final String CSV_HEADER = "id,title,description,completed,priority,createdAt,userId";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Exporte les tâches d'un utilisateur, triées par id.
+     *
+     * @param userId id du propriétaire des tâches
+     * @param format format de sortie
+     * @param out    corps de la réponse
+     */
+    @Transactional(readOnly = true)
+    public void exportUserTasks(Long userId, TaskFileFormat format, OutputStream out) throws IOException {
+        try (Stream<TaskResponse> tasks = taskRepository.streamByUserId(userId)) {
+            write(tasks, format, out);
+        }
+    }
+
+    /**
+     * Exporte toutes les tâches (admin), triées par id.
+     *
+     * @param format format de sortie
+     * @param out    corps de la réponse
+     */
+    @Transactional(readOnly = true)
+    public void exportAllTasks(TaskFileFormat format, OutputStream out) throws IOException {
+        try (Stream<TaskResponse> tasks = taskRepository.streamAll()) {
+            write(tasks, format, out);
+        }
+    }
+
+    private void write(Stream<TaskResponse> tasks, TaskFileFormat format, OutputStream out) throws IOException {
+        Iterator<TaskResponse> iterator = tasks.iterator();
+        if (format == TaskFileFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+            int count = 0;
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } else {
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            int count = 0;
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, TaskResponse task) throws IOException {
+        writer.write(String.valueOf(task.getId()));
+        writer.write(',');
+        writer.write(csv(task.getTitle()));
+        writer.write(',');
+        writer.write(csv(task.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(task.isCompleted()));
+        writer.write(',');
+        writer.write(String.valueOf(task.getPriority()));
+        writer.write(',');
+        writer.write(task.getCreatedAt() != null ? task.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(task.getUserId() != null ? task.getUserId().toString() : "");
+        writer.write("\r\n");
+    }
+
+    /**
+     * Échappe un champ CSV (RFC 4180) : entre guillemets s'il contient une virgule,
+     * un guillemet ou un retour à la ligne, guillemets internes doublés.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.todoapp.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats de fichier acceptés pour l'import et l'export de tâches.
+ */
+public enum TaskFileFormat {
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    TaskFileFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() { return mediaType; }
+
+    /**
+     * @param value paramètre de requête (csv ou ndjson, insensible à la casse)
+     * @return le format correspondant
+     * @throws IllegalArgumentException si le format est inconnu
+     */
+    public static TaskFileFormat fromParam(String value) {
+        return valueOf(value.toUpperCase(java.util.Locale.ROOT));
+    }
+
+    /**
+     * @param contentType en-tête Content-Type de la requête
+     * @return CSV pour text/csv, NDJSON sinon
+     */
+    public static TaskFileFormat fromContentType(String contentType) {
+        return MediaType.parseMediaType(contentType).isCompatibleWith(CSV.mediaType) ? CSV : NDJSON;
+    }
+}
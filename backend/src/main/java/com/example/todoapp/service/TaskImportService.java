@@ -0,0 +1,234 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.model.Task;
+import com.example.todoapp.payload.BatchItemResult;
+import com.example.todoapp.payload.ImportEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Import de tâches depuis un fichier CSV ou NDJSON lu en flux.
+ *
+ * Le fichier est lu ligne à ligne et les tâches sont enregistrées par lots de 500
+ * via TaskBatchService.importAll (une transaction par lot, même correspondance des
+ * champs que POST /api/tasks). Seul le lot courant est gardé en mémoire, quelle que
+ * soit la taille du fichier. Chaque lot committé publie un seul TaskEvent "resync" :
+ * les clients abonnés rechargent leur liste au lieu de recevoir une ligne par tâche.
+ *
+ * La progression est écrite en NDJSON au fil de l'import : une ligne "error" par
+ * ligne rejetée (1000 au maximum), une ligne "progress" par lot, une ligne "summary"
+ * à la fin.
+ */
+@Service
+public class TaskImportService {
+
+    private static final int CHUNK_SIZE = TaskBatchService.MAX_BATCH_SIZE;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Importe les tâches lues sur in pour l'utilisateur donné.
+     *
+     * @param userId id de l'utilisateur propriétaire des tâches importées
+     * @param format format du fichier
+     * @param in     corps de la requête
+     * @param out    réponse NDJSON (progression, erreurs, résumé)
+     */
+    public void importTasks(Long userId, TaskFileFormat format, InputStream in, OutputStream out) throws IOException {
+        ImportLineReader reader = new ImportLineReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), MAX_LINE_LENGTH);
+        ImportRun run = new ImportRun(userId, out);
+
+        Map<String, Integer> columns = null;
+        if (format == TaskFileFormat.CSV) {
+            columns = readCsvHeader(reader);
+            if (columns == null) {
+                run.write(ImportEvent.summary(0, 0, 0, "En-tête CSV absent ou sans colonne title"));
+                return;
+            }
+        }
+
+        while (true) {
+            long line = reader.getLineNumber() + 1;
+            Task task;
+            try {
+                if (format == TaskFileFormat.CSV) {
+                    List<String> record = reader.readCsvRecord();
+                    if (record == null) {
+                        break;
+                    }
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    task = fromCsv(record, columns);
+                } else {
+                    String json = reader.readLine();
+                    if (json == null) {
+                        break;
+                    }
+                    if (json.isBlank()) {
+                        continue;
+                    }
+                    task = objectMapper.readValue(json, Task.class);
+                }
+            } catch (ImportLineReader.InvalidLineException e) {
+                run.reject(line, e.getMessage());
+                continue;
+            } catch (JsonProcessingException e) {
+                run.reject(line, "JSON invalide : " + e.getOriginalMessage());
+                continue;
+            } catch (NumberFormatException e) {
+                run.reject(line, "Priorité invalide (1 à 3)");
+                continue;
+            }
+            run.add(task, line);
+        }
+
+        run.finish();
+    }
+
+    /**
+     * Lit la ligne d'en-tête CSV et retourne la position de chaque colonne connue.
+     *
+     * @return colonnes (title obligatoire, description et priority optionnelles), ou null si invalide
+     */
+    private static Map<String, Integer> readCsvHeader(ImportLineReader reader) throws IOException {
+        List<String> header;
+        try {
+            header = reader.readCsvRecord();
+        } catch (ImportLineReader.InvalidLineException e) {
+            return null;
+        }
+        if (header == null) {
+            return null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Retire un éventuel BOM UTF-8 en début de fichier
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        return columns.containsKey("title") ? columns : null;
+    }
+
+    private static Task fromCsv(List<String> record, Map<String, Integer> columns) {
+        Task task = new Task();
+        task.setTitle(field(record, columns, "title"));
+        task.setDescription(field(record, columns, "description"));
+        String priority = field(record, columns, "priority");
+        if (priority != null && !priority.isBlank()) {
+            task.setPriority(Integer.parseInt(priority.trim()));
+        }
+        return task;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * État d'un import : lot en cours, compteurs et écriture de la réponse.
+     */
+    private class ImportRun {
+
+        private final Long userId;
+        private final OutputStream out;
+        private final List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<Long> chunkLines = new ArrayList<>(CHUNK_SIZE);
+        private long processed;
+        private long imported;
+        private long failed;
+        private boolean aborted;
+
+        ImportRun(Long userId, OutputStream out) {
+            this.userId = userId;
+            this.out = out;
+        }
+
+        void add(Task task, long line) throws IOException {
+            if (aborted) {
+                return;
+            }
+            processed++;
+            chunk.add(task);
+            chunkLines.add(line);
+            if (chunk.size() == CHUNK_SIZE) {
+                flushChunk();
+            }
+        }
+
+        void reject(long line, String error) throws IOException {
+            if (aborted) {
+                return;
+            }
+            processed++;
+            failed++;
+            if (failed <= MAX_REPORTED_ERRORS) {
+                write(ImportEvent.error(line, error));
+            }
+        }
+
+        void finish() throws IOException {
+            if (aborted) {
+                return;
+            }
+            if (!chunk.isEmpty()) {
+                flushChunk();
+            }
+            write(ImportEvent.summary(processed, imported, failed, null));
+        }
+
+        private void flushChunk() throws IOException {
+            List<BatchItemResult> results;
+            try {
+                results = taskBatchService.importAll(userId, chunk);
+            } catch (RuntimeException e) {
+                // Les lots précédents restent enregistrés ; la suite du fichier est ignorée
+                aborted = true;
+                failed += chunk.size();
+                write(ImportEvent.summary(processed, imported, failed, "Import interrompu : " + e.getMessage()));
+                return;
+            }
+            for (BatchItemResult result : results) {
+                if (result.getStatus() == 201) {
+                    imported++;
+                } else {
+                    failed++;
+                    if (failed <= MAX_REPORTED_ERRORS) {
+                        write(ImportEvent.error(chunkLines.get(result.getIndex()), result.getError()));
+                    }
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+            write(ImportEvent.progress(processed, imported, failed));
+        }
+
+        void write(ImportEvent event) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
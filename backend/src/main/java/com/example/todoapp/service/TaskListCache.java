@@ -0,0 +1,125 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache en mémoire de la liste de tâches de chaque utilisateur (GET /api/tasks) et de
+ * son ETag : une liste inchangée est servie, ou validée en 304, sans requête SQL.
+ *
+ * Taille bornée en nombre de tâches (tasks.list-cache.max-tasks), durée de vie
+ * tasks.list-cache.ttl-seconds. Toute écriture publie un TaskEvent : la liste du
+ * propriétaire est invalidée juste avant le commit puis juste après.
+ *
+ * Écritures concurrentes : un chargement dépose d'abord un ticket dans le cache et ne
+ * remplace que ce ticket par la liste lue. Une invalidation survenue pendant la lecture
+ * retire le ticket, la liste lue (peut-être antérieure au commit) n'est alors pas gardée.
+ * Une fois la réponse d'une écriture envoyée, aucune lecture ne renvoie l'ancienne liste.
+ *
+ * Le cache est propre à chaque instance : avec plusieurs instances, une écriture faite
+ * sur l'une n'invalide pas les autres avant la fin du TTL.
+ *
+ * Métriques : cache.gets (hit, miss), cache.evictions, cache.size avec cache="tasks.list".
+ */
+@Component
+public class TaskListCache {
+
+    /**
+     * Liste de tâches et ETag, lus ensemble.
+     */
+    public record CachedList(String etag, List<TaskResponse> tasks) {
+    }
+
+    private final Cache<Long, Object> cache; // userId -> CachedList, ou ticket de chargement
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+
+    /**
+     * @param maxTasks      nombre total de tâches gardées en cache, tous utilisateurs confondus
+     * @param ttlSeconds    durée de vie d'une liste en cache
+     * @param meterRegistry registre des métriques
+     */
+    public TaskListCache(@Value("${tasks.list-cache.max-tasks:100000}") long maxTasks,
+                         @Value("${tasks.list-cache.ttl-seconds:300}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .weigher((Long userId, Object value) ->
+                        value instanceof CachedList list ? list.tasks().size() + 1 : 1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.list");
+    }
+
+    /**
+     * Retourne la liste en cache, ou la charge et la garde si aucune écriture ne
+     * l'a invalidée pendant le chargement.
+     *
+     * @param userId id de l'utilisateur
+     * @param loader lecture de l'ETag puis de la liste en base
+     * @return liste et ETag
+     */
+    public CachedList get(Long userId, Supplier<CachedList> loader) {
+        ConcurrentMap<Long, Object> entries = cache.asMap(); // lectures sans statistiques : comptées ici
+        if (entries.get(userId) instanceof CachedList cached) {
+            stats.recordHits(1);
+            return cached;
+        }
+        stats.recordMisses(1);
+        Object ticket = new Object();
+        Object current = entries.compute(userId, (id, value) -> value instanceof CachedList ? value : ticket);
+        if (current instanceof CachedList cached) {
+            return cached; // chargée entre-temps par une autre requête
+        }
+        CachedList loaded = loader.get();
+        entries.computeIfPresent(userId, (id, value) -> value == ticket ? loaded : value);
+        return loaded;
+    }
+
+    /**
+     * Retire la liste d'un utilisateur (ex : utilisateur supprimé).
+     *
+     * @param userId id de l'utilisateur
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Avant le commit : les lectures suivantes rechargent, et les chargements en cours
+     * (commencés avant l'écriture) ne seront pas gardés.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeCommit(TaskEvent event) {
+        invalidateOwner(event);
+    }
+
+    /**
+     * Après le commit (ou tout de suite hors transaction) : retire ce qu'une lecture
+     * a pu charger entre l'invalidation précédente et le commit.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCommit(TaskEvent event) {
+        invalidateOwner(event);
+    }
+
+    private void invalidateOwner(TaskEvent event) {
+        if (event.getUserId() != null) {
+            cache.invalidate(event.getUserId());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Tâches ouvertes de chaque utilisateur, triées par priorité (1 = haute), puis date de
+ * création (la plus ancienne d'abord), puis id : sert GET /api/tasks/next sans requête
+ * SQL ni tri de toute la liste.
+ *
+ * Chargé depuis la base au premier appel, puis tenu à jour par les TaskEvent après
+ * commit (création, modification, complétion, suppression, lot importé). Un événement
+ * qui ne peut pas être appliqué (tâche rouverte dont on ne connaît pas la date de
+ * création) retire l'index de l'utilisateur, rechargé à l'appel suivant.
+ *
+ * Écritures concurrentes : même principe de ticket que TaskListCache. Un événement
+ * reçu pendant un chargement retire le ticket, la lecture n'est alors pas gardée.
+ *
+ * Taille bornée en nombre de tâches ouvertes (tasks.next-index.max-tasks), durée de vie
+ * tasks.next-index.ttl-seconds. Propre à chaque instance, comme TaskListCache.
+ *
+ * Métriques : cache.gets (hit, miss), cache.evictions, cache.size avec cache="tasks.next".
+ */
+@Component
+public class TaskPriorityIndex {
+
+    static final Comparator<TaskResponse> NEXT_ORDER = Comparator
+            .comparingInt(TaskResponse::getPriority)
+            .thenComparing(TaskResponse::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(TaskResponse::getId);
+
+    private final Cache<Long, Object> cache; // userId -> OpenTasks, ou ticket de chargement
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+
+    /**
+     * @param maxTasks      nombre total de tâches ouvertes indexées, tous utilisateurs confondus
+     * @param ttlSeconds    durée de vie de l'index d'un utilisateur
+     * @param meterRegistry registre des métriques
+     */
+    public TaskPriorityIndex(@Value("${tasks.next-index.max-tasks:100000}") long maxTasks,
+                             @Value("${tasks.next-index.ttl-seconds:300}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .weigher((Long userId, Object value) ->
+                        value instanceof OpenTasks tasks ? tasks.size() + 1 : 1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats(() -> stats)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.next");
+    }
+
+    /**
+     * Retourne les premières tâches ouvertes de l'utilisateur dans l'ordre NEXT_ORDER.
+     *
+     * @param userId id de l'utilisateur
+     * @param limit  nombre maximal de tâches
+     * @param loader lecture des tâches ouvertes en base, en cas d'absence de l'index
+     * @return au plus limit tâches
+     */
+    public List<TaskResponse> next(Long userId, int limit, Supplier<List<TaskResponse>> loader) {
+        ConcurrentMap<Long, Object> entries = cache.asMap(); // lectures sans statistiques : comptées ici
+        if (entries.get(userId) instanceof OpenTasks tasks) {
+            stats.recordHits(1);
+            return tasks.first(limit);
+        }
+        stats.recordMisses(1);
+        Object ticket = new Object();
+        Object current = entries.compute(userId, (id, value) -> value instanceof OpenTasks ? value : ticket);
+        if (current instanceof OpenTasks tasks) {
+            return tasks.first(limit); // chargé entre-temps par une autre requête
+        }
+        OpenTasks loaded = new OpenTasks(loader.get());
+        entries.computeIfPresent(userId, (id, value) -> value == ticket ? loaded : value);
+        return loaded.first(limit);
+    }
+
+    /**
+     * Retire l'index d'un utilisateur (ex : utilisateur supprimé).
+     *
+     * @param userId id de l'utilisateur
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Après le commit (ou tout de suite hors transaction) : applique le changement à
+     * l'index du propriétaire s'il est chargé. Le poids de l'entrée est recalculé.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        if (event.isUserDeleted()) {
+            cache.invalidate(event.getUserId());
+            return;
+        }
+        cache.asMap().computeIfPresent(event.getUserId(), (id, value) ->
+                value instanceof OpenTasks tasks && tasks.apply(event) ? tasks : null);
+    }
+
+    /**
+     * Tâches ouvertes d'un utilisateur : ensemble trié et accès par id.
+     */
+    private static final class OpenTasks {
+
+        private final TreeSet<TaskResponse> sorted = new TreeSet<>(NEXT_ORDER);
+        private final Map<Long, TaskResponse> byId = new HashMap<>();
+
+        private OpenTasks(Collection<TaskResponse> openTasks) {
+            openTasks.forEach(this::put);
+        }
+
+        private synchronized int size() {
+            return byId.size();
+        }
+
+        private synchronized List<TaskResponse> first(int limit) {
+            List<TaskResponse> result = new ArrayList<>(Math.min(limit, byId.size()));
+            Iterator<TaskResponse> it = sorted.iterator();
+            while (result.size() < limit && it.hasNext()) {
+                result.add(it.next());
+            }
+            return result;
+        }
+
+        /**
+         * @return false si l'index doit être rechargé
+         */
+        private synchronized boolean apply(TaskEvent event) {
+            if (event.getCreated() != null) { // lot importé : tâches nouvelles et ouvertes
+                for (TaskResponse task : event.getCreated()) {
+                    remove(task.getId());
+                    if (!task.isCompleted()) {
+                        put(task);
+                    }
+                }
+                return true;
+            }
+            TaskResponse previous = remove(event.getTaskId());
+            if (event.isDeleted()) {
+                return true;
+            }
+            TaskResponse task = event.getTask();
+            if (task == null) {
+                return false;
+            }
+            if (previous != null && previous.getUpdatedAt() != null && task.getUpdatedAt() != null
+                    && previous.getUpdatedAt().isAfter(task.getUpdatedAt())) {
+                put(previous); // événement plus ancien que la version indexée
+                return true;
+            }
+            if (task.isCompleted()) {
+                return true;
+            }
+            LocalDateTime createdAt = task.getCreatedAt() != null ? task.getCreatedAt()
+                    : previous != null ? previous.getCreatedAt() : null;
+            if (createdAt == null) {
+                return false; // tâche rouverte sans date de création connue : position inconnue
+            }
+            put(new TaskResponse(task.getId(), task.getTitle(), task.getDescription(), false,
+                    task.getPriority(), createdAt, task.getUpdatedAt(), null, task.getUserId()));
+            return true;
+        }
+
+        private void put(TaskResponse task) {
+            byId.put(task.getId(), task);
+            sorted.add(task);
+        }
+
+        private TaskResponse remove(Long taskId) {
+            TaskResponse previous = byId.remove(taskId);
+            if (previous != null) {
+                sorted.remove(previous);
+            }
+            return previous;
+        }
+    }
+}
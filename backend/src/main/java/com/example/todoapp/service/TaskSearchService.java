@@ -0,0 +1,130 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Recherche plein texte dans le titre et la description des tâches d'un utilisateur.
+ *
+ * Chaque mot de la requête est cherché comme préfixe d'un mot de la tâche ("rap" trouve
+ * "rapport"), tous les mots doivent être présents. Les résultats sont classés par
+ * pertinence : un mot trouvé dans le titre pèse plus que dans la description.
+ *
+ * Sur PostgreSQL, la recherche passe par l'index GIN (user_id, search_vector) de la
+ * migration V12, qui ne lit que les tâches de l'utilisateur contenant les mots. Les autres
+ * bases (H2 des benchmarks) n'ont pas cet index : les tâches de l'utilisateur sont alors
+ * filtrées en mémoire, avec le même classement.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Borne le coût d'une requête : au-delà, les mots suivants sont ignorés
+    private static final int MAX_TERMS = 8;
+    private static final double TITLE_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.4;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void detectDatabase() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equals(database);
+    }
+
+    /**
+     * Recherche dans les tâches d'un utilisateur.
+     *
+     * @param userId id de l'utilisateur propriétaire
+     * @param q      texte saisi
+     * @param limit  nombre maximal de résultats
+     * @return tâches trouvées, les plus pertinentes d'abord (vide si q ne contient aucun mot)
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponse> search(Long userId, String q, int limit) {
+        List<String> terms = terms(q);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        if (postgres) {
+            return taskRepository.searchByUserId(userId, toTsQuery(terms), limit).stream()
+                    .map(TaskRepository.TaskRow::toResponse)
+                    .toList();
+        }
+        return searchInMemory(userId, terms, limit);
+    }
+
+    /**
+     * Découpe la requête en mots (lettres et chiffres uniquement) : aucun caractère
+     * de la syntaxe tsquery ne peut passer.
+     */
+    static List<String> terms(String q) {
+        if (q == null) {
+            return List.of();
+        }
+        return Arrays.stream(NON_WORD.split(q.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .toList();
+    }
+
+    private static String toTsQuery(List<String> terms) {
+        return String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+    }
+
+    private List<TaskResponse> searchInMemory(Long userId, List<String> terms, int limit) {
+        record Scored(TaskResponse task, double score) {
+        }
+        return taskRepository.findByUserId(userId).stream()
+                .map(task -> new Scored(task, score(task, terms)))
+                .filter(scored -> scored.score() > 0)
+                .sorted(Comparator.comparingDouble(Scored::score).reversed()
+                        .thenComparing(scored -> scored.task().getId(), Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Scored::task)
+                .toList();
+    }
+
+    /**
+     * Score d'une tâche : somme des poids des mots trouvés, 0 si un mot manque.
+     */
+    private static double score(TaskResponse task, List<String> terms) {
+        List<String> titleWords = words(task.getTitle());
+        List<String> descriptionWords = words(task.getDescription());
+        double score = 0;
+        for (String term : terms) {
+            if (titleWords.stream().anyMatch(word -> word.startsWith(term))) {
+                score += TITLE_WEIGHT;
+            } else if (descriptionWords.stream().anyMatch(word -> word.startsWith(term))) {
+                score += DESCRIPTION_WEIGHT;
+            } else {
+                return 0;
+            }
+        }
+        return score;
+    }
+
+    private static List<String> words(String text) {
+        return text == null ? List.of() : Arrays.asList(NON_WORD.split(text.toLowerCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.TaskStatsResponse;
+import com.example.todoapp.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Statistiques globales des tâches (GET /api/admin/stats), tenues en mémoire : nombre de
+ * tâches ouvertes et terminées par priorité et par utilisateur, répartition des
+ * utilisateurs par nombre de tâches, durées de complétion (de createdAt à completedAt). Une lecture ne coûte que la
+ * copie de quelques compteurs, quel que soit le nombre de tâches.
+ *
+ * Chargées depuis la base au démarrage, puis mises à jour par les TaskEvent après commit :
+ * une modification ou une suppression retire l'état précédent de la tâche (porté par
+ * l'événement) et ajoute le nouveau.
+ *
+ * Réconciliation toutes les tasks.stats.reconcile-interval-ms par GROUP BY sur le
+ * primaire (transaction en lecture-écriture). Un écart n'est corrigé que s'il est
+ * constaté deux fois de suite à l'identique : celui d'une écriture committée pendant la
+ * réconciliation, dont l'événement n'était pas encore appliqué, a disparu à la suivante.
+ * Les tâches d'un utilisateur supprimé (un seul événement "userDeleted", sans état des
+ * tâches) sont comptées en base avant leur suppression puis retirées des compteurs après
+ * le commit (voir onUserDeleted).
+ *
+ * Propre à chaque instance : chacune compte les écritures qu'elle reçoit et rattrape les
+ * autres à la réconciliation.
+ *
+ * Métriques : tasks.stats.reconciliations (result=match, drift, corrected).
+ */
+@Component
+public class TaskStats {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStats.class);
+
+    // Classes de durée de complétion (bornes exclues, en secondes), comme TaskRepository.sumTimeToComplete
+    private static final long[] TIME_BOUNDS = {3600, 86_400, 604_800, 2_592_000};
+    private static final String[] TIME_LABELS = {"<1h", "<1d", "<7d", "<30d", ">=30d"};
+    // Classes du nombre de tâches par utilisateur (bornes exclues)
+    private static final long[] USER_BOUNDS = {10, 100, 1000};
+    private static final String[] USER_LABELS = {"1-9", "10-99", "100-999", "1000+"};
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final Object lock = new Object();
+    private Counters counters; // null tant que rien n'est chargé
+    private Counters pendingDrift; // écart constaté à la réconciliation précédente
+    private LocalDateTime reconciledAt;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter matches;
+    private final Counter drifts;
+    private final Counter corrections;
+
+    public TaskStats(MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        // Lectures en transaction lecture-écriture : sur le primaire, dans un même instantané
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.matches = reconciliationCounter("match", meterRegistry);
+        this.drifts = reconciliationCounter("drift", meterRegistry);
+        this.corrections = reconciliationCounter("corrected", meterRegistry);
+    }
+
+    private static Counter reconciliationCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("tasks.stats.reconciliations")
+                .description("Comparaisons des statistiques des tâches avec la base")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return statistiques globales, chargées depuis la base si besoin
+     */
+    public TaskStatsResponse snapshot() {
+        return read(counters -> counters.toResponse(reconciledAt));
+    }
+
+    /**
+     * @param userId id de l'utilisateur
+     * @return nombre de tâches ouvertes et terminées de l'utilisateur
+     */
+    public TaskStatsResponse.UserCounts user(Long userId) {
+        return read(counters -> counters.userCounts(userId));
+    }
+
+    /**
+     * Suppression d'un utilisateur : l'événement "userDeleted" est publié avant la
+     * suppression de ses tâches (TaskSyncService.deleteAllOfUser). Elles sont comptées
+     * dans la transaction (requêtes limitées à ses tâches), puis retirées des compteurs
+     * après le commit ; rien n'est retiré si la transaction est annulée.
+     */
+    @EventListener(condition = "#event.userDeleted")
+    public void onUserDeleted(TaskEvent event) {
+        Counters tasks = transactionTemplate.execute(status -> Counters.load(taskRepository, event.getUserId()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            subtract(tasks); // hors transaction
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                subtract(tasks);
+            }
+        });
+    }
+
+    private void subtract(Counters tasks) {
+        synchronized (lock) {
+            if (counters != null) {
+                counters.plus(tasks, -1);
+            }
+            pendingDrift = null; // calculé avant la suppression
+        }
+    }
+
+    /**
+     * Lit les compteurs sous le verrou, après les avoir chargés depuis la base s'ils ne
+     * l'ont jamais été (premier appel avant la première réconciliation).
+     */
+    private <T> T read(Function<Counters, T> reader) {
+        synchronized (lock) {
+            if (counters != null) {
+                return reader.apply(counters);
+            }
+        }
+        Counters database = load();
+        synchronized (lock) {
+            if (counters == null) {
+                counters = database;
+                reconciledAt = LocalDateTime.now();
+            }
+            return reader.apply(counters);
+        }
+    }
+
+    private Counters load() {
+        return transactionTemplate.execute(status -> Counters.load(taskRepository, null));
+    }
+
+    /**
+     * Après le commit (ou tout de suite hors transaction) : applique la création, la
+     * modification, la suppression ou le lot importé. Sans état précédent connu, l'écart
+     * est laissé à la réconciliation.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        TaskResponse previous = event.getPrevious();
+        synchronized (lock) {
+            if (counters == null) {
+                return;
+            }
+            switch (event.getType()) {
+                case TaskEvent.CREATED -> counters.add(event.getTask(), event.getTask().getCreatedAt(), 1);
+                case TaskEvent.UPDATED -> {
+                    if (previous != null) {
+                        counters.add(previous, previous.getCreatedAt(), -1);
+                        TaskResponse task = event.getTask();
+                        counters.add(task, task.getCreatedAt() != null ? task.getCreatedAt()
+                                : previous.getCreatedAt(), 1);
+                    }
+                }
+                case TaskEvent.DELETED -> {
+                    if (previous != null) {
+                        counters.add(previous, previous.getCreatedAt(), -1);
+                    }
+                }
+                case TaskEvent.RESYNC -> event.getCreated()
+                        .forEach(task -> counters.add(task, task.getCreatedAt(), 1));
+                default -> { }
+            }
+        }
+        if (previous == null && (TaskEvent.UPDATED.equals(event.getType()) || event.isDeleted())) {
+            log.debug("Tâche {} : état précédent inconnu, statistiques corrigées à la réconciliation",
+                    event.getTaskId());
+        }
+    }
+
+    /**
+     * Compare les compteurs aux agrégats calculés par la base (sur le primaire : un
+     * réplica en retard ferait croire à un écart).
+     */
+    @Scheduled(fixedDelayString = "${tasks.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Counters database = load();
+        synchronized (lock) {
+            reconciledAt = LocalDateTime.now();
+            if (counters == null) {
+                counters = database;
+                return;
+            }
+            Counters drift = database.minus(counters);
+            if (drift.isZero()) {
+                pendingDrift = null;
+                matches.increment();
+            } else if (drift.sameAs(pendingDrift)) {
+                counters.plus(drift, 1);
+                pendingDrift = null;
+                corrections.increment();
+                log.warn("Statistiques des tâches corrigées, écart persistant avec la base : {}", drift);
+            } else {
+                pendingDrift = drift;
+                drifts.increment();
+            }
+        }
+    }
+
+    /**
+     * Compteurs, ou écart entre deux états de compteurs. Accès sous le verrou de TaskStats.
+     */
+    private static final class Counters {
+
+        private final TreeMap<Integer, long[]> byPriority = new TreeMap<>(); // priorité -> [ouvertes, terminées]
+        private final Map<Long, long[]> byUser = new HashMap<>(); // userId -> [ouvertes, terminées]
+        private final long[] usersPerClass = new long[USER_LABELS.length];
+        private final long[] timeToComplete = new long[TIME_LABELS.length];
+        private long timeToCompleteSeconds;
+
+        /**
+         * @param userId null pour toutes les tâches, sinon les seules tâches de cet utilisateur
+         */
+        private static Counters load(TaskRepository taskRepository, Long userId) {
+            Counters counters = new Counters();
+            List<TaskRepository.PriorityCount> priorities = userId == null
+                    ? taskRepository.countByPriorityAndCompleted()
+                    : taskRepository.countByPriorityAndCompletedForUser(userId);
+            for (TaskRepository.PriorityCount row : priorities) {
+                addTo(counters.byPriority, row.getPriority(), row.getCompleted(), row.getCount());
+                if (userId != null) {
+                    counters.addUser(userId, row.getCompleted(), row.getCount());
+                }
+            }
+            if (userId == null) {
+                for (TaskRepository.UserCompletedCount row : taskRepository.countByUserIdAndCompleted()) {
+                    counters.addUser(row.getUserId(), row.getCompleted(), row.getCount());
+                }
+            }
+            TaskRepository.TimeToCompleteTotals totals = userId == null
+                    ? taskRepository.sumTimeToComplete()
+                    : taskRepository.sumTimeToCompleteForUser(userId);
+            if (totals != null) {
+                counters.timeToComplete[0] = orZero(totals.getUnderHour());
+                counters.timeToComplete[1] = orZero(totals.getUnderDay());
+                counters.timeToComplete[2] = orZero(totals.getUnderWeek());
+                counters.timeToComplete[3] = orZero(totals.getUnderMonth());
+                counters.timeToComplete[4] = orZero(totals.getLonger());
+                counters.timeToCompleteSeconds = orZero(totals.getSeconds());
+            }
+            return counters;
+        }
+
+        /**
+         * Ajoute (sign = 1) ou retire (sign = -1) une tâche.
+         */
+        private void add(TaskResponse task, LocalDateTime createdAt, int sign) {
+            addTo(byPriority, task.getPriority(), task.isCompleted(), sign);
+            if (task.getUserId() != null) {
+                addUser(task.getUserId(), task.isCompleted(), sign);
+            }
+            if (task.isCompleted() && createdAt != null && task.getCompletedAt() != null) {
+                long seconds = Duration.between(createdAt, task.getCompletedAt()).getSeconds();
+                timeToComplete[classOf(seconds, TIME_BOUNDS)] += sign;
+                timeToCompleteSeconds += sign * seconds;
+            }
+        }
+
+        private void addUser(Long userId, boolean completed, long delta) {
+            long[] counts = byUser.get(userId);
+            long before = counts != null ? counts[0] + counts[1] : 0;
+            addTo(byUser, userId, completed, delta);
+            long after = before + delta;
+            if (before > 0) {
+                usersPerClass[classOf(before, USER_BOUNDS)]--;
+            }
+            if (after > 0) {
+                usersPerClass[classOf(after, USER_BOUNDS)]++;
+            }
+        }
+
+        /**
+         * @return écart this - base, sans les entrées nulles (usersPerClass n'en fait pas partie)
+         */
+        private Counters minus(Counters base) {
+            Counters drift = new Counters();
+            subtract(byPriority, base.byPriority, drift.byPriority);
+            subtract(byUser, base.byUser, drift.byUser);
+            for (int i = 0; i < timeToComplete.length; i++) {
+                drift.timeToComplete[i] = timeToComplete[i] - base.timeToComplete[i];
+            }
+            long completed = 0;
+            for (long count : timeToComplete) {
+                completed += count;
+            }
+            // Secondes arrondies différemment selon la base : au plus 1 s par tâche n'est pas un écart
+            long seconds = timeToCompleteSeconds - base.timeToCompleteSeconds;
+            drift.timeToCompleteSeconds = Math.abs(seconds) <= completed ? 0 : seconds;
+            return drift;
+        }
+
+        /**
+         * Ajoute (sign = 1) ou retire (sign = -1) d'autres compteurs, ou un écart calculé par minus.
+         */
+        private void plus(Counters other, int sign) {
+            other.byPriority.forEach((priority, counts) -> {
+                addTo(byPriority, priority, false, sign * counts[0]);
+                addTo(byPriority, priority, true, sign * counts[1]);
+            });
+            other.byUser.forEach((userId, counts) -> {
+                addUser(userId, false, sign * counts[0]);
+                addUser(userId, true, sign * counts[1]);
+            });
+            for (int i = 0; i < timeToComplete.length; i++) {
+                timeToComplete[i] += sign * other.timeToComplete[i];
+            }
+            timeToCompleteSeconds += sign * other.timeToCompleteSeconds;
+        }
+
+        private boolean isZero() {
+            return sameAs(new Counters());
+        }
+
+        private boolean sameAs(Counters other) {
+            return other != null
+                    && sameCounts(byPriority, other.byPriority)
+                    && sameCounts(byUser, other.byUser)
+                    && Arrays.equals(timeToComplete, other.timeToComplete)
+                    && timeToCompleteSeconds == other.timeToCompleteSeconds;
+        }
+
+        private TaskStatsResponse toResponse(LocalDateTime reconciledAt) {
+            long open = 0;
+            long completed = 0;
+            List<TaskStatsResponse.PriorityCounts> priorities = new ArrayList<>(byPriority.size());
+            for (Map.Entry<Integer, long[]> entry : byPriority.entrySet()) {
+                long[] counts = entry.getValue();
+                priorities.add(new TaskStatsResponse.PriorityCounts(entry.getKey(), counts[0], counts[1]));
+                open += counts[0];
+                completed += counts[1];
+            }
+            long timed = 0;
+            for (long count : timeToComplete) {
+                timed += count;
+            }
+            return new TaskStatsResponse(open, completed, priorities, byUser.size(),
+                    labelled(USER_LABELS, usersPerClass), labelled(TIME_LABELS, timeToComplete),
+                    timed > 0 ? timeToCompleteSeconds / timed : null, reconciledAt);
+        }
+
+        private TaskStatsResponse.UserCounts userCounts(Long userId) {
+            long[] counts = byUser.getOrDefault(userId, new long[2]);
+            return new TaskStatsResponse.UserCounts(userId, counts[0], counts[1]);
+        }
+
+        @Override
+        public String toString() {
+            Map<Integer, String> priorities = new TreeMap<>();
+            byPriority.forEach((priority, counts) -> priorities.put(priority, counts[0] + "/" + counts[1]));
+            return "priorités (ouvertes/terminées) " + priorities + ", " + byUser.size() + " utilisateur(s), durées "
+                    + Arrays.toString(timeToComplete) + ", " + timeToCompleteSeconds + " s";
+        }
+
+        private static <K> void addTo(Map<K, long[]> map, K key, boolean completed, long delta) {
+            if (delta == 0) {
+                return;
+            }
+            long[] counts = map.computeIfAbsent(key, k -> new long[2]);
+            counts[completed ? 1 : 0] += delta;
+            if (counts[0] == 0 && counts[1] == 0) {
+                map.remove(key);
+            }
+        }
+
+        private static <K> void subtract(Map<K, long[]> values, Map<K, long[]> base, Map<K, long[]> result) {
+            Set<K> keys = new HashSet<>(values.keySet());
+            keys.addAll(base.keySet());
+            for (K key : keys) {
+                long[] value = values.getOrDefault(key, new long[2]);
+                long[] other = base.getOrDefault(key, new long[2]);
+                addTo(result, key, false, value[0] - other[0]);
+                addTo(result, key, true, value[1] - other[1]);
+            }
+        }
+
+        private static <K> boolean sameCounts(Map<K, long[]> a, Map<K, long[]> b) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (Map.Entry<K, long[]> entry : a.entrySet()) {
+                if (!Arrays.equals(entry.getValue(), b.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Map<String, Long> labelled(String[] labels, long[] counts) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < labels.length; i++) {
+                result.put(labels[i], counts[i]);
+            }
+            return result;
+        }
+
+        private static int classOf(long value, long[] bounds) {
+            int i = 0;
+            while (i < bounds.length && value >= bounds[i]) {
+                i++;
+            }
+            return i;
+        }
+
+        private static long orZero(Long value) {
+            return value != null ? value : 0;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.TaskTombstone;
+import com.example.todoapp.payload.TaskDeltaResponse;
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.repository.TaskRepository;
+import com.example.todoapp.repository.TaskTombstoneRepository;
+import com.example.todoapp.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Synchronisation de la liste de tâches côté client.
+ *
+ * - ETag : version de la liste (users.task_version), augmentée dans la transaction de
+ *   chaque écriture sur les tâches de l'utilisateur. Contrairement à un agrégat (nombre de
+ *   tâches, dernière modification), elle change à chaque écriture, quelles que soient les
+ *   horloges des instances. L'ETag d'un delta porte aussi le watermark demandé.
+ * - Delta : tâches modifiées et ids supprimés depuis un watermark. Les suppressions
+ *   sont tracées dans task_tombstones, dans la même transaction que le DELETE.
+ *
+ * Le watermark renvoyé est antérieur de tasks.sync.overlap-ms à la lecture, pour ne pas
+ * manquer une modification horodatée avant la lecture mais validée juste après : une
+ * tâche peut donc être renvoyée deux fois, le client l'applique simplement à nouveau.
+ */
+@Service
+public class TaskSyncService {
+
+    // Clé des utilisateurs dont la version est à augmenter au commit de la transaction courante
+    private static final Object PENDING_VERSIONS = new Object();
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.sync.tombstone-retention-days:30}")
+    private long retentionDays;
+
+    @Value("${tasks.sync.overlap-ms:2000}")
+    private long overlapMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Écritures unitaires en une instruction : RETURNING sur PostgreSQL, OLD TABLE sur H2
+    private boolean postgres;
+
+    @PostConstruct
+    void detectDatabase() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equals(database);
+    }
+
+    /**
+     * Calcule l'ETag de la liste de tâches d'un utilisateur.
+     * L'id de l'utilisateur en fait partie : un cache navigateur partagé entre deux
+     * comptes ne peut pas valider la liste de l'un avec l'ETag de l'autre.
+     *
+     * ETag faible : la même version de la liste est servie en JSON, JSON compact ou CBOR,
+     * compressée ou non (Tomcat ne compresse pas une réponse à ETag fort).
+     *
+     * @param userId id de l'utilisateur
+     * @return valeur d'ETag (W/ puis entre guillemets)
+     */
+    public String etag(Long userId) {
+        return "W/\"" + version(userId) + "\"";
+    }
+
+    /**
+     * Calcule l'ETag d'une synchronisation delta : version de la liste et watermark
+     * demandé. Deux since différents donnent deux réponses différentes, donc deux ETag.
+     *
+     * @param userId id de l'utilisateur
+     * @param since  watermark renvoyé par la synchronisation précédente
+     * @return valeur d'ETag
+     * @throws IllegalArgumentException si since est illisible
+     */
+    public String deltaEtag(Long userId, String since) {
+        // Valeur relue puis réécrite : seuls des chiffres, '-', ':', '.' et 'T' entrent dans l'en-tête
+        return "W/\"" + version(userId) + "-" + parseSince(since) + "\"";
+    }
+
+    private String version(Long userId) {
+        Long version = userRepository.findTaskVersion(userId);
+        return Long.toString(userId, 36) + "-" + Long.toString(version != null ? version : 0, 36);
+    }
+
+    private static LocalDateTime parseSince(String since) {
+        try {
+            return LocalDateTime.parse(since);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Paramètre since invalide : " + since);
+        }
+    }
+
+    /**
+     * Augmente la version de la liste du propriétaire de chaque tâche écrite, dans la
+     * transaction de l'écriture, juste avant le commit : un ETag lu après le commit
+     * désigne toujours la liste modifiée. Les utilisateurs d'une transaction sont
+     * regroupés en un seul UPDATE (lots, imports).
+     */
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        if (event.getUserId() == null || event.isUserDeleted()) {
+            return; // utilisateur supprimé : plus de liste à versionner
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userRepository.incrementTaskVersions(List.of(event.getUserId())); // écriture hors transaction
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> userIds = (Set<Long>) TransactionSynchronizationManager.getResource(PENDING_VERSIONS);
+        if (userIds == null) {
+            Set<Long> pending = new TreeSet<>(); // verrous pris dans l'ordre des ids
+            TransactionSynchronizationManager.bindResource(PENDING_VERSIONS, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    userRepository.incrementTaskVersions(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(PENDING_VERSIONS);
+                }
+            });
+            userIds = pending;
+        }
+        userIds.add(event.getUserId());
+    }
+
+    /**
+     * Lit la liste de tâches d'un utilisateur et son ETag, dans une même transaction
+     * en lecture seule (une seule connexion), par projection.
+     * L'ETag est lu avant la liste : une écriture entre les deux donne un ETag plus
+     * ancien que la liste, jamais l'inverse.
+     *
+     * @param userId id de l'utilisateur
+     * @return liste et ETag, à garder dans TaskListCache
+     */
+    @Transactional(readOnly = true)
+    public TaskListCache.CachedList list(Long userId) {
+        String etag = etag(userId);
+        return new TaskListCache.CachedList(etag, taskRepository.findByUserId(userId));
+    }
+
+    /**
+     * Retourne les changements de la liste d'un utilisateur depuis un watermark.
+     *
+     * @param userId id de l'utilisateur
+     * @param since  watermark renvoyé par la synchronisation précédente
+     * @return tâches modifiées, ids supprimés et nouveau watermark
+     * @throws IllegalArgumentException si since est illisible
+     */
+    @Transactional(readOnly = true)
+    public TaskDeltaResponse delta(Long userId, String since) {
+        LocalDateTime from = parseSince(since);
+        LocalDateTime readAt = Task.now();
+        String watermark = readAt.minus(Duration.ofMillis(overlapMs)).toString();
+
+        // Au-delà de la rétention, des tombstones ont pu être purgées : resynchronisation complète
+        if (from.isBefore(readAt.minusDays(retentionDays))) {
+            return new TaskDeltaResponse(taskRepository.findByUserId(userId), List.of(), watermark, true);
+        }
+
+        List<TaskResponse> changed = taskRepository.findByUserIdAndUpdatedAtGreaterThanOrderByIdAsc(userId, from);
+        List<Long> deletedIds = tombstoneRepository.findDeletedTaskIds(userId, from);
+        return new TaskDeltaResponse(changed, deletedIds, watermark, false);
+    }
+
+    /**
+     * Met à jour une tâche de l'utilisateur et publie l'événement.
+     *
+     * Une seule instruction écrit la tâche, avec le contrôle de propriétaire, et renvoie
+     * son état précédent (RETURNING sur PostgreSQL, OLD TABLE sur H2) : l'événement porte
+     * l'état réellement remplacé (TaskStats), sans lecture préalable. L'existence de la
+     * tâche n'est relue que si aucune ligne n'a été modifiée, pour distinguer 404 et 403.
+     * La réponse est construite à partir des valeurs écrites.
+     *
+     * @param id      id de la tâche
+     * @param userId  id du propriétaire attendu
+     * @param details nouvelles données de la tâche
+     * @return la tâche mise à jour
+     * @throws ResponseStatusException 400 si les données sont invalides (mêmes règles que
+     * PUT /api/tasks/batch), 404 si la tâche est absente, 403 si elle n'est pas à l'utilisateur
+     */
+    @Transactional
+    public TaskResponse updateOwned(Long id, Long userId, Task details) {
+        return update(id, userId, details);
+    }
+
+    /**
+     * Met à jour une tâche quel que soit son propriétaire (admin), comme updateOwned.
+     *
+     * @throws ResponseStatusException 400 si les données sont invalides, 404 si la tâche est absente
+     */
+    @Transactional
+    public TaskResponse updateAny(Long id, Task details) {
+        return update(id, null, details);
+    }
+
+    /**
+     * @param ownerId propriétaire attendu, null pour un admin
+     */
+    private TaskResponse update(Long id, Long ownerId, Task details) {
+        TaskBatchService.requireValid(details);
+        LocalDateTime now = Task.now();
+        TaskResponse previous = (postgres
+                ? taskRepository.updateReturningPrevious(id, ownerId, details.getTitle(), details.getDescription(),
+                        details.isCompleted(), details.getPriority(), now)
+                : taskRepository.updateReturningPreviousH2(id, ownerId, details.getTitle(), details.getDescription(),
+                        details.isCompleted(), details.getPriority(), now))
+                .orElseThrow(() -> notWritable(id, ownerId))
+                .toResponse();
+        TaskResponse response = new TaskResponse(details);
+        response.setId(id);
+        response.setCreatedAt(previous.getCreatedAt());
+        response.setUpdatedAt(now);
+        // Comme la requête : date conservée si la tâche était déjà terminée
+        response.setCompletedAt(details.isCompleted()
+                ? (previous.getCompletedAt() != null ? previous.getCompletedAt() : now) : null);
+        response.setUserId(previous.getUserId());
+        eventPublisher.publishEvent(TaskEvent.updated(response, previous));
+        return response;
+    }
+
+    /**
+     * Supprime une tâche de l'utilisateur, trace sa suppression et publie l'événement.
+     * Comme pour la mise à jour, une seule instruction supprime la tâche et renvoie son
+     * état (événement, TaskStats) ; sur PostgreSQL, elle enregistre aussi la tombstone.
+     *
+     * @return la tâche supprimée
+     * @throws ResponseStatusException 404 si la tâche est absente, 403 si elle n'est pas à l'utilisateur
+     */
+    @Transactional
+    public TaskResponse deleteOwned(Long id, Long userId) {
+        return delete(id, userId);
+    }
+
+    /**
+     * Supprime une tâche quel que soit son propriétaire (admin), comme deleteOwned.
+     *
+     * @throws ResponseStatusException 404 si la tâche est absente
+     */
+    @Transactional
+    public TaskResponse deleteAny(Long id) {
+        return delete(id, null);
+    }
+
+    private TaskResponse delete(Long id, Long ownerId) {
+        LocalDateTime now = Task.now();
+        TaskResponse previous;
+        if (postgres) {
+            previous = taskRepository.deleteReturningWithTombstone(id, ownerId, now)
+                    .orElseThrow(() -> notWritable(id, ownerId))
+                    .toResponse();
+        } else {
+            previous = taskRepository.deleteReturningH2(id, ownerId)
+                    .orElseThrow(() -> notWritable(id, ownerId))
+                    .toResponse();
+            tombstoneRepository.save(new TaskTombstone(id, previous.getUserId(), now));
+        }
+        eventPublisher.publishEvent(TaskEvent.deleted(previous));
+        return previous;
+    }
+
+    /**
+     * Erreur d'une écriture qui n'a touché aucune ligne : 403 si la tâche existe (elle
+     * n'est donc pas à l'utilisateur), 404 sinon.
+     */
+    private ResponseStatusException notWritable(Long id, Long ownerId) {
+        if (ownerId != null && taskRepository.existsById(id)) {
+            return new ResponseStatusException(HttpStatus.FORBIDDEN, "Accès refusé à la tâche " + id);
+        }
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Tâche introuvable : " + id);
+    }
+
+    /**
+     * Supprime toutes les tâches d'un utilisateur (avant sa propre suppression) : une
+     * requête trace les suppressions, une autre supprime les tâches, sans les charger, et
+     * un seul événement "userDeleted" remplace un événement par tâche.
+     *
+     * L'événement est publié avant les DELETE : TaskStats compte dans la transaction les
+     * tâches qui vont disparaître. Les autres abonnés le reçoivent après le commit.
+     *
+     * @param userId id de l'utilisateur
+     * @return nombre de tâches supprimées
+     */
+    @Transactional
+    public int deleteAllOfUser(Long userId) {
+        eventPublisher.publishEvent(TaskEvent.userDeleted(userId));
+        tombstoneRepository.recordDeletionsByUserId(userId, Task.now());
+        return taskRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Trace la suppression d'un lot de tâches dont les propriétaires sont connus.
+     * À appeler dans la transaction du DELETE.
+     *
+     * @param tasks tâches supprimées (id et propriétaire)
+     */
+    @Transactional
+    public void recordDeletions(Collection<TaskResponse> tasks) {
+        LocalDateTime now = Task.now();
+        tombstoneRepository.saveAll(tasks.stream()
+                .map(task -> new TaskTombstone(task.getId(), task.getUserId(), now))
+                .toList());
+    }
+
+    /**
+     * Purge quotidienne des tombstones plus anciennes que la durée de rétention.
+     */
+    @Scheduled(cron = "${tasks.sync.tombstone-purge-cron:0 30 3 * * *}")
+    public void purgeTombstones() {
+        tombstoneRepository.purgeBefore(Task.now().minusDays(retentionDays));
+    }
+}
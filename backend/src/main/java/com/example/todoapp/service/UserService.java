@@ -0,0 +1,59 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.PrincipalCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Opérations d'administration sur les comptes utilisateurs.
+ */
+@Service
+public class UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    /**
+     * Supprime un utilisateur, ses tâches et ses refresh tokens dans une seule transaction :
+     * en cas d'erreur, rien n'est supprimé.
+     *
+     * Les effets hors base ne sont appliqués qu'après le commit, comme pour les autres
+     * écritures : l'événement "userDeleted" met à jour statistiques et caches et ferme ses
+     * flux SSE, et la version des tokens en cache est oubliée.
+     *
+     * @param id id de l'utilisateur
+     * @return false si l'utilisateur n'existe pas
+     */
+    @Transactional
+    public boolean deleteUser(Long id) {
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        // Tombstones et DELETE en deux requêtes, un seul événement
+        taskSyncService.deleteAllOfUser(id);
+        refreshTokenService.revokeAll(id); // refresh tokens et JWT déjà émis
+        userRepository.delete(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.invalidate(user); // révocation effective tout de suite sur cette instance
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package db.migration.common;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vérifie qu'aucun username n'est en double avant la contrainte d'unicité posée par V2.
+ *
+ * Les comptes Google prenaient le nom affiché comme username, sans contrôle d'unicité.
+ * Les doublons ne sont pas renommés ici : un utilisateur ne retrouverait plus son
+ * identifiant et un nom suffixé pourrait en heurter un autre. La migration échoue avec
+ * la liste des doublons et leurs ids, à corriger à la main avant de relancer.
+ */
+public class V1_1__check_duplicate_usernames extends BaseJavaMigration {
+
+    private static final int MAX_LISTED = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, List<Long>> duplicates = new LinkedHashMap<>(); // username -> ids
+        try (Statement statement = context.getConnection().createStatement();
+             ResultSet rows = statement.executeQuery("SELECT username, id FROM users WHERE username IN "
+                     + "(SELECT username FROM users GROUP BY username HAVING COUNT(*) > 1) ORDER BY username, id")) {
+            while (rows.next()) {
+                duplicates.computeIfAbsent(rows.getString(1), name -> new ArrayList<>()).add(rows.getLong(2));
+            }
+        }
+        if (duplicates.isEmpty()) {
+            return;
+        }
+        List<String> listed = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : duplicates.entrySet()) {
+            if (listed.size() == MAX_LISTED) {
+                listed.add("... (" + (duplicates.size() - MAX_LISTED) + " autre(s))");
+                break;
+            }
+            listed.add("'" + entry.getKey() + "' (ids " + entry.getValue() + ")");
+        }
+        throw new FlywayException(duplicates.size() + " username(s) en double, à renommer avant de migrer : "
+                + String.join(", ", listed));
+    }
+}
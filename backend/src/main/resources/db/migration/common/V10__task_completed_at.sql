@@ -0,0 +1,7 @@
+-- Date du passage à terminée : la durée de complétion (statistiques admin) va de created_at
+-- à completed_at. updated_at change à chaque modification, même après la complétion.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP(6);
+
+-- Tâches déjà terminées : la date de complétion n'a pas été conservée, updated_at en est la
+-- meilleure estimation (exacte si la tâche n'a plus été modifiée depuis)
+UPDATE tasks SET completed_at = updated_at WHERE completed = TRUE AND completed_at IS NULL;
@@ -0,0 +1,4 @@
+-- Version des tokens d'un utilisateur, recopiée dans le claim "ver" de ses JWT : l'augmenter
+-- révoque tous les JWT déjà émis, sur toutes les instances et après un redémarrage.
+-- Les JWT émis sans ce claim valent 0, la valeur initiale.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
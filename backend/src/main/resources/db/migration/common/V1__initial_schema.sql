@@ -0,0 +1,47 @@
+-- Schéma de départ, repris de celui généré par Hibernate (ddl-auto=update).
+-- Idempotent : une base existante est marquée en baseline 0 (spring.flyway.baseline-on-migrate),
+-- ce script n'y crée que ce qui manque.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255),
+    email    VARCHAR(255),
+    password VARCHAR(255),
+    role     VARCHAR(255) CHECK (role IN ('USER', 'ADMIN'))
+);
+
+-- Les refresh tokens sont désormais stockés hachés dans refresh_tokens
+ALTER TABLE users DROP COLUMN IF EXISTS refresh_token;
+
+-- Ids de tâches alloués par blocs de 50 (batch JDBC des INSERT)
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          BIGINT PRIMARY KEY,
+    user_id     BIGINT REFERENCES users (id),
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    completed   BOOLEAN NOT NULL,
+    priority    INTEGER NOT NULL,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+UPDATE tasks SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    task_id    BIGINT PRIMARY KEY,
+    user_id    BIGINT,
+    deleted_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    family_id  VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP(6),
+    expires_at TIMESTAMP(6),
+    used_at    TIMESTAMP(6)
+);
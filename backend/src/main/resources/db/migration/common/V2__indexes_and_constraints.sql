@@ -0,0 +1,26 @@
+-- Index des chemins d'accès des contrôleurs et services, et unicité des identifiants.
+-- Chaque index est aussi déclaré sur l'entité (@Table(indexes)) : SchemaIndexValidator
+-- vérifie au démarrage que la base les contient.
+
+-- Les comptes Google prenaient le nom affiché comme username, sans contrôle d'unicité :
+-- V1_1 (db.migration.common, Java) fait échouer la migration en listant les doublons
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_username ON users (username);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (email);
+
+-- Liste paginée par clé, avec filtre sur le statut : (propriétaire, statut, clé de tri, id)
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_priority ON tasks (user_id, completed, priority, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_title ON tasks (user_id, completed, title, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_created ON tasks (user_id, completed, created_at, id);
+-- Liste par propriétaire (filtre user_id seul, comptages admin) et tri par date de création
+CREATE INDEX IF NOT EXISTS idx_tasks_user_created ON tasks (user_id, created_at, id);
+-- Synchronisation delta (?since=) et ETag de la liste
+CREATE INDEX IF NOT EXISTS idx_tasks_user_updated ON tasks (user_id, updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_user_deleted ON task_tombstones (user_id, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_deleted ON task_tombstones (deleted_at);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_tokens_hash ON refresh_tokens (token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens (expires_at);
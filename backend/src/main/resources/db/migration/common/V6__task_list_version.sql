@@ -0,0 +1,4 @@
+-- Version de la liste de tâches de chaque utilisateur (ETag de GET /api/tasks), augmentée
+-- dans la transaction de chaque écriture sur ses tâches (TaskSyncService).
+-- Hors de l'entité User : une sauvegarde de l'utilisateur ne peut pas l'écraser.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS task_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Liste sans filtre de statut triée par priorité (GET /api/tasks?size=, tri par défaut) :
+-- idx_tasks_user_completed_priority commence par completed et ne permet pas de reprendre
+-- la page par clé. Index (propriétaire, clé de tri, id), comme idx_tasks_user_created.
+CREATE INDEX IF NOT EXISTS idx_tasks_user_priority ON tasks (user_id, priority, id);
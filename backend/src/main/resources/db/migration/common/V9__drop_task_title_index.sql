@@ -0,0 +1,4 @@
+-- Le tri par titre porte sur coalesce(title, '') (TaskRepository.TITLE_KEY) : l'index de V2
+-- sur la colonne title n'est utilisé par aucune requête et ne fait que ralentir les écritures.
+-- Index d'expression sur PostgreSQL : V5 et V7.
+DROP INDEX IF EXISTS idx_tasks_user_completed_title;
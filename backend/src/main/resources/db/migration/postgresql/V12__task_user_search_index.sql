@@ -0,0 +1,9 @@
+-- Recherche plein texte : l'index de V4 (search_vector seul) renvoie les tâches de tous les
+-- utilisateurs qui contiennent les mots, croisées ensuite avec celles de l'utilisateur.
+-- Index GIN composite (user_id, search_vector) : seules ses tâches sont lues. btree_gin
+-- fournit la classe d'opérateurs GIN de user_id (extension de confiance depuis PG 13).
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_search ON tasks USING gin (user_id, search_vector);
+
+DROP INDEX IF EXISTS idx_tasks_search;
@@ -0,0 +1,5 @@
+-- Les tâches étaient numérotées par une colonne IDENTITY avant le passage à tasks_seq :
+-- la séquence est placée au-delà du plus grand id existant (+50 = taille d'allocation).
+-- Sans effet si elle est déjà en avance. Une base embarquée neuve n'a pas d'ids existants.
+SELECT setval('tasks_seq', GREATEST((SELECT last_value FROM tasks_seq),
+                                    (SELECT COALESCE(MAX(id), 0) FROM tasks) + 50));
@@ -0,0 +1,10 @@
+-- Recherche plein texte (GET /api/tasks/search) : vecteur calculé par PostgreSQL à chaque
+-- écriture, titre pondéré au-dessus de la description, indexé en GIN.
+-- Configuration 'simple' : pas de racinisation, adaptée aux titres courts et multilingues.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_search ON tasks USING gin (search_vector);
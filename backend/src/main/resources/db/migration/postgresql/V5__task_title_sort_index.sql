@@ -0,0 +1,5 @@
+-- Tri par titre (GET /api/tasks?sort=title) : une tâche sans titre est classée comme un
+-- titre vide, voir TaskRepository.TITLE_KEY. Index sur l'expression, en plus de l'index
+-- sur la colonne déclaré sur l'entité (vérifié par SchemaIndexValidator).
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_title_key
+    ON tasks (user_id, completed, (coalesce(title, '')), id);
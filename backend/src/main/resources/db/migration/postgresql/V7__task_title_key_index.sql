@@ -0,0 +1,5 @@
+-- Tri par titre sans filtre de statut (GET /api/tasks?sort=title) : l'index de V5 commence
+-- par completed et ne sert que la liste filtrée. Index d'expression sur la même clé
+-- (TaskRepository.TITLE_KEY), pour reprendre la page par comparaison de lignes.
+CREATE INDEX IF NOT EXISTS idx_tasks_user_title_key
+    ON tasks (user_id, (coalesce(title, '')), id);
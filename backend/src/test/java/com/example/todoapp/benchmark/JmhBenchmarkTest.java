@@ -0,0 +1,100 @@
+package com.example.todoapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lance les microbenchmarks JMH du package benchmark.jmh (JWT, filtre d'authentification,
+ * mapping DTO, sérialisation JSON, contrôle d'accès) et écrit les résultats au format
+ * JSON de JMH dans target/jmh-result.json.
+ *
+ * Détection de régression : avec -Djmh.baseline=chemin/vers/un/jmh-result.json précédent,
+ * le test échoue si un benchmark est plus lent que la référence de plus de
+ * jmh.tolerance (0.20 par défaut, soit 20 %).
+ *
+ * Lancement : mvn test -Pbenchmark -Dtest=JmhBenchmarkTest
+ * Un seul benchmark : ajouter -Djmh.include=JwtUtilsBenchmark (expression régulière)
+ */
+@Tag("benchmark")
+class JmhBenchmarkTest {
+
+    private static final String RESULT_FILE = "target/jmh-result.json";
+
+    @Test
+    void runMicrobenchmarks() throws Exception {
+        String include = System.getProperty("jmh.include", "");
+        Options options = new OptionsBuilder()
+                .include(JmhBenchmarkTest.class.getPackageName() + "\\.jmh\\..*" + include + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertThat(results).isNotEmpty();
+
+        String baseline = System.getProperty("jmh.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            double tolerance = Double.parseDouble(System.getProperty("jmh.tolerance", "0.20"));
+            assertThat(regressions(results, readScores(new File(baseline)), tolerance)).isEmpty();
+        }
+    }
+
+    /**
+     * Compare chaque résultat à la référence de même nom et mêmes paramètres.
+     * En temps moyen un score plus haut est plus lent, en débit c'est l'inverse.
+     */
+    private static List<String> regressions(Collection<RunResult> results, Map<String, Double> baseline,
+                                            double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Map<String, String> values = new TreeMap<>();
+            params.getParamsKeys().forEach(key -> values.put(key, params.getParam(key)));
+            Double reference = baseline.get(key(params.getBenchmark(), values));
+            if (reference == null) {
+                continue; // nouveau benchmark, pas encore de référence
+            }
+            double score = result.getPrimaryResult().getScore();
+            double change = params.getMode() == Mode.Throughput
+                    ? (reference - score) / reference
+                    : (score - reference) / reference;
+            if (change > tolerance) {
+                regressions.add(String.format("%s %s : %.3f -> %.3f %s (%+.0f %%)", params.getBenchmark(), values,
+                        reference, score, result.getPrimaryResult().getScoreUnit(), change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, Double> readScores(File file) throws Exception {
+        Map<String, Double> scores = new HashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            Map<String, String> values = new TreeMap<>();
+            node.path("params").properties().forEach(param -> values.put(param.getKey(), param.getValue().asText()));
+            scores.put(key(node.path("benchmark").asText(), values), node.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return benchmark + params;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.TodoappApplication;
+import com.example.todoapp.model.Role;
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.TaskRepository;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtUtils;
+import com.example.todoapp.service.RefreshTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test de charge de bout en bout sur les vrais endpoints, avant une mise en production.
+ *
+ * Démarre l'application (profil benchmark, H2 en mémoire), crée load.users utilisateurs
+ * de load.tasks-per-user tâches, puis envoie un mélange de requêtes (login, refresh,
+ * liste, création, modification, suppression, liste admin) à débit cible croissant
+ * (load.rates, requêtes/s).
+ *
+ * Modèle ouvert : les arrivées suivent un processus de Poisson au débit cible, qu'importe
+ * le temps de réponse. La latence est mesurée depuis l'instant d'arrivée prévu : un
+ * serveur saturé se voit dans les percentiles au lieu de ralentir le générateur.
+ *
+ * Affiche par palier et par opération p50/p90/p99/max, taux d'erreur et histogramme,
+ * le débit maximal tenu (erreurs < load.max-error-rate et p99 < load.slo-ms), et écrit
+ * le tout dans target/load-test-result.json. Hors ligne, une seule machine.
+ *
+ * Lancement : mvn test -Pbenchmark -Dtest=MixedWorkloadBenchmarkTest
+ * Exemple : -Dload.users=1000 -Dload.tasks-per-user=50 -Dload.rates=100,200,400 -Dload.duration-s=60
+ */
+@Tag("benchmark")
+class MixedWorkloadBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final int TASKS_PER_USER = Integer.getInteger("load.tasks-per-user", 20);
+    private static final int[] RATES = Arrays.stream(System.getProperty("load.rates", "50,100,200").split(","))
+            .mapToInt(rate -> Integer.parseInt(rate.trim()))
+            .toArray();
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup-s", 10));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("load.duration-s", 30));
+    private static final long SLO_MS = Long.getLong("load.slo-ms", 500);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final String PASSWORD = "load-test-password";
+    private static final long[] HISTOGRAM_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    /**
+     * Opérations du mélange et leur poids (sur 100).
+     */
+    private enum Operation {
+        LOGIN(2), REFRESH(3), LIST(50), CREATE(15), UPDATE(15), DELETE(10), ADMIN_USERS(5);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick(int roll) {
+            for (Operation operation : values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return LIST;
+        }
+    }
+
+    /**
+     * Utilisateur simulé : jetons courants et ids de ses tâches.
+     */
+    private record VirtualUser(String username, String accessToken, AtomicReference<String> refreshToken,
+                               ConcurrentLinkedDeque<Long> taskIds) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String baseUrl;
+    private List<VirtualUser> users;
+    private String adminToken;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoappApplication.class)
+                .profiles("benchmark")
+                .properties("server.port=0")
+                .run()) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            seed(context);
+
+            run(RATES[0], WARMUP);
+            Map<String, Object> report = new LinkedHashMap<>();
+            List<Map<String, Object>> steps = new ArrayList<>();
+            int maxSustained = 0;
+            for (int rate : RATES) {
+                Map<Operation, Recorder> recorders = run(rate, MEASURE);
+                Recorder total = Recorder.merge(recorders.values());
+                boolean sustained = total.errorRate() <= MAX_ERROR_RATE && total.percentile(99) <= SLO_MS;
+                if (sustained) {
+                    maxSustained = rate;
+                }
+                print(rate, recorders, total, sustained);
+                steps.add(step(rate, recorders, total, sustained));
+            }
+            System.out.printf("Débit maximal tenu (erreurs <= %.1f %%, p99 <= %d ms) : %d req/s%n",
+                    MAX_ERROR_RATE * 100, SLO_MS, maxSustained);
+
+            report.put("users", USERS);
+            report.put("tasksPerUser", TASKS_PER_USER);
+            report.put("durationSeconds", MEASURE.toSeconds());
+            report.put("sloMs", SLO_MS);
+            report.put("maxSustainedRate", maxSustained);
+            report.put("steps", steps);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File("target/load-test-result.json"), report);
+            assertThat(steps).isNotEmpty();
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        TaskRepository taskRepository = context.getBean(TaskRepository.class);
+        JwtUtils jwtUtils = context.getBean(JwtUtils.class);
+        RefreshTokenService refreshTokenService = context.getBean(RefreshTokenService.class);
+        // Même empreinte pour tous : un seul hachage BCrypt au lieu d'un par utilisateur
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        User admin = new User();
+        admin.setUsername("load-admin");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        adminToken = jwtUtils.generateJwtToken(admin.getId(), admin.getUsername(), "ADMIN", admin.getTokenVersion());
+
+        users = new ArrayList<>(USERS);
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setUsername("load-user-" + u);
+            user.setEmail("load-user-" + u + "@example.com");
+            user.setPassword(passwordHash);
+            userRepository.save(user);
+            List<Task> tasks = new ArrayList<>(TASKS_PER_USER);
+            for (int i = 0; i < TASKS_PER_USER; i++) {
+                Task task = new Task();
+                task.setTitle("Tâche " + i);
+                task.setDescription("Description de la tâche " + i);
+                task.setPriority(i % 3 + 1);
+                task.setUser(user);
+                tasks.add(task);
+            }
+            ConcurrentLinkedDeque<Long> taskIds = new ConcurrentLinkedDeque<>();
+            taskRepository.saveAll(tasks).forEach(task -> taskIds.add(task.getId()));
+            users.add(new VirtualUser(user.getUsername(),
+                    jwtUtils.generateJwtToken(user.getId(), user.getUsername(), "USER", user.getTokenVersion()),
+                    new AtomicReference<>(refreshTokenService.issue(user.getId())),
+                    taskIds));
+        }
+    }
+
+    /**
+     * Envoie des requêtes à débit cible pendant duration, puis attend les réponses en cours.
+     */
+    private Map<Operation, Recorder> run(int rate, Duration duration) {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder());
+        }
+        Random arrivals = new Random(rate);
+        double meanIntervalNanos = 1e9 / rate;
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            double next = start;
+            while (true) {
+                next += -Math.log(1 - arrivals.nextDouble()) * meanIntervalNanos; // inter-arrivée exponentielle
+                long intended = (long) next;
+                if (intended >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = Operation.pick(arrivals.nextInt(100));
+                VirtualUser user = users.get(arrivals.nextInt(users.size()));
+                senders.execute(() -> recorders.get(operation).record(intended, () -> send(operation, user)));
+            }
+        }
+        return recorders;
+    }
+
+    /**
+     * Exécute une opération et retourne le code HTTP.
+     */
+    private int send(Operation operation, VirtualUser user) throws Exception {
+        return switch (operation) {
+            case LOGIN -> post("/api/auth/login", null,
+                    Map.of("username", user.username(), "password", PASSWORD)).statusCode();
+            case REFRESH -> {
+                HttpResponse<String> response = post("/api/auth/refresh", null,
+                        Map.of("refreshToken", user.refreshToken().get()));
+                if (response.statusCode() == 200) {
+                    user.refreshToken().set(objectMapper.readTree(response.body()).path("refreshToken").asText());
+                }
+                yield response.statusCode();
+            }
+            case LIST -> exchange(request("/api/tasks", user.accessToken()).GET()).statusCode();
+            case CREATE -> create(user);
+            case UPDATE -> {
+                Long id = user.taskIds().peekFirst();
+                yield id == null ? create(user) : exchange(request("/api/tasks/" + id, user.accessToken())
+                        .PUT(json(Map.of("title", "Modifiée", "description", "", "priority", 1, "completed", true))))
+                        .statusCode();
+            }
+            case DELETE -> {
+                Long id = user.taskIds().pollLast();
+                yield id == null ? create(user)
+                        : exchange(request("/api/tasks/" + id, user.accessToken()).DELETE()).statusCode();
+            }
+            case ADMIN_USERS -> exchange(request("/api/admin/users", adminToken).GET()).statusCode();
+        };
+    }
+
+    private int create(VirtualUser user) throws Exception {
+        HttpResponse<String> response = post("/api/tasks", user.accessToken(),
+                Map.of("title", "Nouvelle tâche", "description", "Créée par le test de charge", "priority", 2));
+        if (response.statusCode() == 200) {
+            JsonNode body = objectMapper.readTree(response.body());
+            user.taskIds().addFirst(body.path("id").asLong());
+        }
+        return response.statusCode();
+    }
+
+    private HttpResponse<String> post(String path, String token, Map<String, ?> body) throws Exception {
+        return exchange(request(path, token).POST(json(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, ?> body) throws Exception {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+
+    private HttpResponse<String> exchange(HttpRequest.Builder builder) throws Exception {
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void print(int rate, Map<Operation, Recorder> recorders, Recorder total, boolean sustained) {
+        System.out.printf("%n=== %d req/s cible : %.0f req/s obtenues, %s ===%n", rate,
+                total.count() / (double) MEASURE.toSeconds(), sustained ? "tenu" : "NON TENU");
+        System.out.printf("%-12s %7s %7s %9s %9s %9s %9s  %s%n",
+                "opération", "requêtes", "erreurs", "p50 ms", "p90 ms", "p99 ms", "max ms", "codes");
+        recorders.forEach((operation, recorder) -> print(operation.name(), recorder));
+        print("TOTAL", total);
+        StringBuilder histogram = new StringBuilder("histogramme (ms) :");
+        long[] buckets = total.histogram();
+        for (int i = 0; i < buckets.length; i++) {
+            String bound = i < HISTOGRAM_BOUNDS_MS.length ? "<=" + HISTOGRAM_BOUNDS_MS[i] : ">" + HISTOGRAM_BOUNDS_MS[i - 1];
+            histogram.append(' ').append(bound).append(':').append(buckets[i]);
+        }
+        System.out.println(histogram);
+    }
+
+    private static void print(String name, Recorder recorder) {
+        System.out.printf("%-12s %7d %7d %9.1f %9.1f %9.1f %9.1f  %s%n", name, recorder.count(), recorder.errors(),
+                recorder.percentile(50), recorder.percentile(90), recorder.percentile(99), recorder.percentile(100),
+                recorder.statuses());
+    }
+
+    private static Map<String, Object> step(int rate, Map<Operation, Recorder> recorders, Recorder total,
+                                            boolean sustained) {
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("targetRate", rate);
+        step.put("achievedRate", total.count() / (double) MEASURE.toSeconds());
+        step.put("sustained", sustained);
+        step.put("total", total.summary());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> operations.put(operation.name(), recorder.summary()));
+        step.put("operations", operations);
+        return step;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        int execute() throws Exception;
+    }
+
+    /**
+     * Latences (depuis l'arrivée prévue) et codes de réponse d'une opération.
+     */
+    private static final class Recorder {
+
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private long[] sorted;
+
+        void record(long intendedNanos, Call call) {
+            String status;
+            try {
+                int code = call.execute();
+                status = String.valueOf(code);
+                if (code >= 400) {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                status = e.getClass().getSimpleName();
+                errors.increment();
+            }
+            latencies.add(System.nanoTime() - intendedNanos);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        static Recorder merge(Iterable<Recorder> recorders) {
+            Recorder merged = new Recorder();
+            for (Recorder recorder : recorders) {
+                merged.latencies.addAll(recorder.latencies);
+                merged.errors.add(recorder.errors.sum());
+                recorder.statuses.forEach((status, count) ->
+                        merged.statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+            }
+            return merged;
+        }
+
+        int count() {
+            return sorted().length;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        double errorRate() {
+            return count() == 0 ? 0 : errors() / (double) count();
+        }
+
+        double percentile(int p) {
+            long[] values = sorted();
+            if (values.length == 0) {
+                return 0;
+            }
+            int index = Math.min(values.length - 1, (int) Math.ceil(p / 100.0 * values.length) - 1);
+            return values[Math.max(index, 0)] / 1e6;
+        }
+
+        long[] histogram() {
+            long[] buckets = new long[HISTOGRAM_BOUNDS_MS.length + 1];
+            for (long nanos : sorted()) {
+                int i = 0;
+                while (i < HISTOGRAM_BOUNDS_MS.length && nanos > HISTOGRAM_BOUNDS_MS[i] * 1_000_000) {
+                    i++;
+                }
+                buckets[i]++;
+            }
+            return buckets;
+        }
+
+        Map<String, Long> statuses() {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count());
+            summary.put("errors", errors());
+            summary.put("p50Ms", percentile(50));
+            summary.put("p90Ms", percentile(90));
+            summary.put("p99Ms", percentile(99));
+            summary.put("maxMs", percentile(100));
+            summary.put("statuses", statuses());
+            summary.put("histogramMs", histogram());
+            return summary;
+        }
+
+        private long[] sorted() {
+            if (sorted == null) {
+                sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            return sorted;
+        }
+    }
+}
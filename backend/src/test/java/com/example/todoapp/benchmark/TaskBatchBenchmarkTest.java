@@ -0,0 +1,121 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare le débit de création de tâches via POST /api/tasks (une requête par tâche)
+ * et via POST /api/tasks/batch (lots de 200), de bout en bout sur HTTP.
+ *
+ * Le nombre de requêtes SQL préparées est lu dans les statistiques Hibernate : le lot
+ * doit en envoyer nettement moins (INSERT en batch JDBC, une transaction par lot).
+ *
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@ActiveProfiles("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TaskBatchBenchmarkTest {
+
+    private static final int TASKS = 2000;
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchCreateOutperformsPerItemCreate() {
+        HttpHeaders headers = authHeaders("bench-single");
+        HttpHeaders batchHeaders = authHeaders("bench-batch");
+
+        // Préchauffage (JIT, pool de connexions)
+        createOneByOne(headers, 200);
+        createInBatches(batchHeaders, 200);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        createOneByOne(headers, TASKS);
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        createInBatches(batchHeaders, TASKS);
+        double batchSeconds = (System.nanoTime() - start) / 1e9;
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("POST /api/tasks       : %d tâches en %.2f s (%.0f tâches/s), %d requêtes SQL%n",
+                TASKS, singleSeconds, TASKS / singleSeconds, singleStatements);
+        System.out.printf("POST /api/tasks/batch : %d tâches en %.2f s (%.0f tâches/s), %d requêtes SQL%n",
+                TASKS, batchSeconds, TASKS / batchSeconds, batchStatements);
+        System.out.printf("Gain : x%.1f%n", singleSeconds / batchSeconds);
+
+        // Au moins un INSERT par tâche sans lot ; avec lots, un INSERT préparé par batch JDBC
+        assertThat(singleStatements).isGreaterThanOrEqualTo(TASKS);
+        assertThat(batchStatements).isLessThan(singleStatements / 10);
+    }
+
+    private void createOneByOne(HttpHeaders headers, int count) {
+        for (int i = 0; i < count; i++) {
+            ResponseEntity<String> response = restTemplate.exchange("/api/tasks", HttpMethod.POST,
+                    new HttpEntity<>(task(i), headers), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    private void createInBatches(HttpHeaders headers, int count) {
+        for (int done = 0; done < count; done += BATCH_SIZE) {
+            List<Map<String, Object>> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = done; i < Math.min(done + BATCH_SIZE, count); i++) {
+                batch.add(task(i));
+            }
+            ResponseEntity<String> response = restTemplate.exchange("/api/tasks/batch", HttpMethod.POST,
+                    new HttpEntity<>(batch, headers), String.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    private HttpHeaders authHeaders(String username) {
+        User user = new User();
+        user.setUsername(username);
+        userRepository.save(user);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(jwtUtils.generateJwtToken(user.getId(), username, "USER", user.getTokenVersion()));
+        return headers;
+    }
+
+    private static Map<String, Object> task(int i) {
+        return Map.of("title", "Tâche " + i, "description", "Benchmark", "priority", i % 3 + 1);
+    }
+}
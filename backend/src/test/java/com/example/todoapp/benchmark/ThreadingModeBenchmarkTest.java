@@ -0,0 +1,152 @@
+package com.example.todoapp.benchmark;
+
+import com.example.todoapp.TodoappApplication;
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.TaskRepository;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare GET /api/tasks servi par le pool de threads plateforme de Tomcat et par
+ * des threads virtuels (spring.threads.virtual.enabled), à concurrence croissante.
+ *
+ * Modèle fermé : N clients envoient chacun une requête dès la réponse précédente reçue,
+ * pendant une durée fixe. Affiche le débit et les latences p50/p99/max par mode.
+ * Ajouter -DargLine=-Djdk.tracePinnedThreads=short pour signaler les threads virtuels
+ * épinglés (synchronized autour d'une E/S bloquante).
+ *
+ * Lancement : mvn test -Pbenchmark -Dtest=ThreadingModeBenchmarkTest
+ */
+@Tag("benchmark")
+class ThreadingModeBenchmarkTest {
+
+    private static final int[] CONCURRENCY = {50, 400};
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(10);
+    private static final int TASKS_PER_USER = 50;
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        List<String> report = new ArrayList<>();
+        // Deux tours alternés, seul le second est rapporté : le premier sert de préchauffage
+        // de la JVM (JIT) pour que l'ordre des modes ne fausse pas la comparaison
+        boolean[] modes = {false, true, false, true};
+        for (int round = 0; round < modes.length; round++) {
+            boolean virtual = modes[round];
+            boolean measured = round >= 2;
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoappApplication.class)
+                    .profiles("benchmark")
+                    .properties("server.port=0",
+                            "spring.threads.virtual.enabled=" + virtual,
+                            "server.virtual-threads.max-concurrent-requests=200")
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String token = seed(context);
+                for (int clients : CONCURRENCY) {
+                    run(port, token, clients, WARMUP);
+                    Result result = run(port, token, clients, MEASURE);
+                    assertThat(result.errors()).isZero();
+                    if (!measured) {
+                        continue;
+                    }
+                    report.add(String.format("%-10s clients=%-4d %7.0f req/s  p50=%6.1f ms  p99=%6.1f ms  max=%6.1f ms",
+                            virtual ? "virtuels" : "plateforme", clients,
+                            result.count() / (double) MEASURE.toSeconds(),
+                            result.percentile(50), result.percentile(99), result.percentile(100)));
+                }
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        UserRepository users = context.getBean(UserRepository.class);
+        TaskRepository tasks = context.getBean(TaskRepository.class);
+        User user = new User();
+        user.setUsername("bench-threads");
+        users.save(user);
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < TASKS_PER_USER; i++) {
+            Task task = new Task();
+            task.setTitle("Tâche " + i);
+            task.setPriority(i % 3 + 1);
+            task.setUser(user);
+            list.add(task);
+        }
+        tasks.saveAll(list);
+        return context.getBean(JwtUtils.class)
+                .generateJwtToken(user.getId(), user.getUsername(), "USER", user.getTokenVersion());
+    }
+
+    private static Result run(int port, String token, int clients, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().executor(Runnable::run).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            Thread.ofVirtual().start(() -> {
+                List<Long> latencies = new ArrayList<>();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                } finally {
+                    samples.add(latencies.stream().mapToLong(Long::longValue).toArray());
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentile(int p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(p / 100.0 * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
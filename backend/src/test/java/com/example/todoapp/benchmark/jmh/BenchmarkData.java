@@ -0,0 +1,47 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Données de test des microbenchmarks : entités détachées, sans base.
+ */
+final class BenchmarkData {
+
+    static final String JWT_SECRET =
+            "YmVuY2htYXJrLXNlY3JldC1iZW5jaG1hcmstc2VjcmV0LWJlbmNobWFyay1zZWNyZXQtYmVuY2htYXJrLXNlY3JldA==";
+    static final long JWT_EXPIRATION_MS = 3_600_000;
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        ReflectionTestUtils.setField(user, "id", id);
+        user.setUsername("user-" + id);
+        user.setEmail("user-" + id + "@example.com");
+        return user;
+    }
+
+    /**
+     * Tâches au contenu réaliste (titre court, description d'une phrase), ids fixés.
+     */
+    static List<Task> tasks(User owner, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            ReflectionTestUtils.setField(task, "id", (long) i + 1);
+            task.setTitle("Tâche n°" + i);
+            task.setDescription("Préparer le point hebdomadaire et relire les notes, étape " + i);
+            task.setPriority(i % 3 + 1);
+            task.setCompleted(i % 4 == 0);
+            task.setUser(owner);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
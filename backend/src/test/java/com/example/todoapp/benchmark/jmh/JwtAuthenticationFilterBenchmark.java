@@ -0,0 +1,64 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtAuthenticationFilter;
+import com.example.todoapp.security.JwtUtils;
+import com.example.todoapp.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Passage d'une requête authentifiée dans JwtAuthenticationFilter, chaîne de filtres
+ * vide : extraction du token, claims et version des tokens (caches chauds), principal
+ * et SecurityContext.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain EMPTY_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = new JwtUtils(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, 30_000, "bench", "",
+                10_000, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        PrincipalCache principalCache = new PrincipalCache(10_000, 300, 30);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersion(42L)).thenReturn(0); // version ensuite gardée en cache
+        ReflectionTestUtils.setField(principalCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+        authorization = "Bearer " + jwtUtils.generateJwtToken(42L, "user-42", "USER", 0);
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), EMPTY_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Émission et vérification des JWT (HMAC SHA-512).
+ *
+ * validateCached mesure le cas courant : le même token revient à chaque requête et
+ * ses claims sont servis par le cache. validateUncached fait tourner un jeu de tokens
+ * plus grand que le cache : signature et parsing JSON à chaque appel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+
+    private static final int UNCACHED_TOKENS = 4096;
+
+    private JwtUtils jwtUtils;
+    private JwtUtils smallCacheJwtUtils;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, 30_000, "bench", "",
+                10_000, new SimpleMeterRegistry());
+        smallCacheJwtUtils = new JwtUtils(BenchmarkData.JWT_SECRET, BenchmarkData.JWT_EXPIRATION_MS, 30_000,
+                "bench", "", 16, new SimpleMeterRegistry());
+        token = jwtUtils.generateJwtToken(42L, "user-42", "USER", 0);
+        tokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            tokens[i] = jwtUtils.generateJwtToken((long) i, "user-" + i, "USER", 0);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken(42L, "user-42", "USER", 0);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        next = (next + 1) % UNCACHED_TOKENS;
+        return smallCacheJwtUtils.validateJwtToken(tokens[next]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.model.Task;
+import com.example.todoapp.model.User;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.UserResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des entités en DTO : liste de TaskResponse, puis UserResponse complet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private User user;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user(42L);
+        tasks = BenchmarkData.tasks(user, size);
+    }
+
+    @Benchmark
+    public List<TaskResponse> taskResponses() {
+        return tasks.stream().map(TaskResponse::new).toList();
+    }
+
+    @Benchmark
+    public UserResponse userResponse() {
+        return new UserResponse(user.getId(), user.getUsername(), user.getRole(),
+                tasks.stream().map(TaskResponse::new).toList());
+    }
+}
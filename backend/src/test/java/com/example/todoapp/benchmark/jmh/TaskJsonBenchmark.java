@@ -0,0 +1,39 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.payload.TaskResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON d'une liste de tâches (corps de GET /api/tasks), avec un
+ * ObjectMapper configuré comme celui de Spring Boot (dates ISO-8601).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<TaskResponse> tasks;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        tasks = BenchmarkData.tasks(BenchmarkData.user(42L), size).stream().map(TaskResponse::new).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.service.TaskPriorityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/tasks/next hors HTTP : les 10 prochaines tâches lues dans TaskPriorityIndex,
+ * comparées au tri de toute la liste (ce que faisait le client), et coût d'une
+ * modification appliquée à l'index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskPriorityIndexBenchmark {
+
+    private static final Long USER_ID = 42L;
+    private static final int LIMIT = 10;
+    private static final Comparator<TaskResponse> CLIENT_ORDER = Comparator
+            .comparing(TaskResponse::isCompleted)
+            .thenComparingInt(TaskResponse::getPriority)
+            .thenComparing(TaskResponse::getCreatedAt);
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private TaskPriorityIndex index;
+    private List<TaskResponse> tasks;
+    private TaskEvent update;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        tasks = BenchmarkData.tasks(BenchmarkData.user(USER_ID), size).stream()
+                .map(task -> new TaskResponse(task.getId(), task.getTitle(), task.getDescription(),
+                        task.isCompleted(), task.getPriority(), start.plusMinutes(task.getId()),
+                        start.plusMinutes(task.getId()), null, USER_ID))
+                .toList();
+        index = new TaskPriorityIndex(1_000_000, 3600, new SimpleMeterRegistry());
+        index.next(USER_ID, LIMIT, () -> tasks.stream().filter(task -> !task.isCompleted()).toList());
+        TaskResponse changed = tasks.get(size / 2);
+        update = TaskEvent.updated(new TaskResponse(changed.getId(), changed.getTitle(), changed.getDescription(),
+                false, 1, changed.getCreatedAt(), start.plusYears(1), null, USER_ID), changed);
+    }
+
+    @Benchmark
+    public List<TaskResponse> index() {
+        return index.next(USER_ID, LIMIT, List::of);
+    }
+
+    @Benchmark
+    public List<TaskResponse> sortAll() {
+        return tasks.stream().sorted(CLIENT_ORDER).filter(task -> !task.isCompleted()).limit(LIMIT).toList();
+    }
+
+    @Benchmark
+    public void applyUpdate() {
+        index.onTaskEvent(update);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.todoapp.benchmark.jmh;
+
+import com.example.todoapp.config.WireFormats;
+import com.example.todoapp.model.Role;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.security.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût et taille du corps de GET /api/tasks selon le format négocié (Accept) et la
+ * compression (gzip, comme server.compression).
+ *
+ * Les tailles sont affichées au démarrage de chaque combinaison (« taille : ... »).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "compact", "cbor"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<TaskResponse> tasks;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Le JSON compact omet le userId des tâches de l'utilisateur connecté
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        UserDetailsImpl principal = new UserDetailsImpl(42L, "user-42", Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        WireFormats wireFormats = new WireFormats(new ObjectProvider<>() {
+            @Override
+            public Jackson2ObjectMapperBuilder getObject() {
+                return Jackson2ObjectMapperBuilder.json();
+            }
+        });
+        MediaType mediaType = switch (format) {
+            case "compact" -> WireFormats.COMPACT_JSON;
+            case "cbor" -> MediaType.APPLICATION_CBOR;
+            default -> MediaType.APPLICATION_JSON;
+        };
+        objectMapper = wireFormats.mapperFor(mediaType, Jackson2ObjectMapperBuilder.json().build());
+        tasks = BenchmarkData.tasks(BenchmarkData.user(42L), size).stream().map(TaskResponse::new).toList();
+        System.out.printf("taille : %s, %d tâches, gzip=%s -> %d octets%n", format, size, gzip, serialize().length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_THREADLOCAL);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (!gzip) {
+            return objectMapper.writeValueAsBytes(tasks);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, tasks);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.security.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lectures sur réplica avec deux bases H2 en mémoire : le primaire de l'application et
+ * un « réplica » migré à part, sans réplication. Une tâche écrite sur une seule des deux
+ * bases montre celle qui a servi la lecture.
+ *
+ * Le retard du réplica est lu dans sa table replica_lag (lag-query) ; la supprimer
+ * simule un réplica arrêté.
+ *
+ * Utilise le profil H2 des benchmarks mais tourne avec mvn test.
+ */
+@ActiveProfiles("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private static final long STICKY_MS = 1500;
+    private static final int READS = 200;
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaRoutingDataSource")
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.replica.urls", () -> REPLICA_URL);
+        registry.add("spring.datasource.replica.lag-query", () -> "select lag_ms from replica_lag");
+        registry.add("spring.datasource.replica.check-interval-ms", () -> "500");
+        registry.add("spring.datasource.replica.sticky-ms", () -> STICKY_MS);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+        replica = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(), REPLICA_URL, "sa", ""));
+        replica.execute("create table replica_lag (lag_ms bigint)");
+        replica.update("insert into replica_lag values (0)");
+    }
+
+    @Test
+    void readOnlyTrafficGoesToReplicaUnlessStickyLaggingOrDown() throws InterruptedException {
+        JdbcTemplate primary = new JdbcTemplate(dataSource);
+
+        // Lecteur : une tâche différente sur chaque base
+        User reader = user("replica-reader");
+        replica.update("insert into users (id, username, role) values (?, ?, 'USER')",
+                reader.getId(), reader.getUsername());
+        insertTask(primary, 900_001L, reader.getId(), "sur le primaire");
+        insertTask(replica, 900_001L, reader.getId(), "sur le réplica");
+        HttpHeaders readerHeaders = authHeaders(reader);
+
+        replicaRoutingDataSource.checkReplicas();
+        assertThat(firstTitle(readerHeaders)).isEqualTo("sur le réplica");
+
+        // Retard au-delà de max-lag-ms : primaire, puis retour au réplica
+        replica.update("update replica_lag set lag_ms = 10000");
+        replicaRoutingDataSource.checkReplicas();
+        assertThat(firstTitle(readerHeaders)).isEqualTo("sur le primaire");
+        replica.update("update replica_lag set lag_ms = 0");
+        replicaRoutingDataSource.checkReplicas();
+        assertThat(firstTitle(readerHeaders)).isEqualTo("sur le réplica");
+
+        // Réplica arrêté (contrôle en échec) : primaire
+        replica.execute("drop table replica_lag");
+        replicaRoutingDataSource.checkReplicas();
+        assertThat(firstTitle(readerHeaders)).isEqualTo("sur le primaire");
+        replica.execute("create table replica_lag (lag_ms bigint)");
+        replica.update("insert into replica_lag values (0)");
+        replicaRoutingDataSource.checkReplicas();
+
+        // Écrivain : relit sa tâche sur le primaire pendant sticky-ms, puis sur le réplica
+        // (qui ne la reçoit jamais ici)
+        User writer = user("replica-writer");
+        HttpHeaders writerHeaders = authHeaders(writer);
+        ResponseEntity<String> created = restTemplate.exchange("/api/tasks", HttpMethod.POST,
+                new HttpEntity<>(Map.of("title", "écrite", "priority", 1), writerHeaders), String.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstTitle(writerHeaders)).isEqualTo("écrite");
+        Thread.sleep(STICKY_MS + 200);
+        assertThat(firstTitle(writerHeaders)).isNull();
+
+        double replicaBefore = reads("replica");
+        for (int i = 0; i < READS; i++) {
+            firstTitle(readerHeaders);
+        }
+        assertThat(reads("replica") - replicaBefore).isEqualTo(READS);
+    }
+
+    private String firstTitle(HttpHeaders headers) {
+        ResponseEntity<Map> response = restTemplate.exchange("/api/tasks?size=1", HttpMethod.GET,
+                new HttpEntity<>(headers), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> tasks = (List<Map<String, Object>>) response.getBody().get("items");
+        return tasks.isEmpty() ? null : (String) tasks.get(0).get("title");
+    }
+
+    private double reads(String reason) {
+        return meterRegistry.get("datasource.reads").tag("reason", reason).counter().count();
+    }
+
+    private static void insertTask(JdbcTemplate jdbc, long id, Long userId, String title) {
+        jdbc.update("insert into tasks (id, user_id, title, completed, priority, created_at, updated_at) "
+                + "values (?, ?, ?, false, 1, current_timestamp, current_timestamp)", id, userId, title);
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return userRepository.save(user);
+    }
+
+    private HttpHeaders authHeaders(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setBearerAuth(
+                jwtUtils.generateJwtToken(user.getId(), user.getUsername(), "USER", user.getTokenVersion()));
+        return headers;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todoapp.payload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+
+    @Test
+    void roundTripKeepsSortDirectionIdAndKey() {
+        TaskResponse task = task(42L, "a|b|c", 2);
+
+        for (TaskSort sort : TaskSort.values()) {
+            TaskCursor decoded = TaskCursor.decode(TaskCursor.after(task, sort, Sort.Direction.DESC).encode());
+
+            assertThat(decoded.matches(sort, Sort.Direction.DESC)).isTrue();
+            assertThat(decoded.matches(sort, Sort.Direction.ASC)).isFalse();
+            assertThat(decoded.getId()).isEqualTo(42L);
+        }
+        assertThat(TaskCursor.decode(TaskCursor.after(task, TaskSort.TITLE, Sort.Direction.ASC).encode()).getKey())
+                .isEqualTo("a|b|c");
+        assertThat(TaskCursor.decode(TaskCursor.after(task, TaskSort.PRIORITY, Sort.Direction.ASC).encode()).getKey())
+                .isEqualTo(2);
+        assertThat(TaskCursor.decode(TaskCursor.after(task, TaskSort.CREATED_AT, Sort.Direction.ASC).encode()).getKey())
+                .isEqualTo(CREATED_AT);
+    }
+
+    @Test
+    void nullTitleIsNotTheTitleNull() {
+        TaskCursor untitled = TaskCursor.decode(
+                TaskCursor.after(task(1L, null, 1), TaskSort.TITLE, Sort.Direction.ASC).encode());
+        TaskCursor titledNull = TaskCursor.decode(
+                TaskCursor.after(task(1L, "null", 1), TaskSort.TITLE, Sort.Direction.ASC).encode());
+
+        assertThat(untitled.getKey()).isNull();
+        assertThat(titledNull.getKey()).isEqualTo("null");
+    }
+
+    @Test
+    void unreadableCursorIsRejected() {
+        String unprefixedKey = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("TITLE|ASC|1|null".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TaskCursor.decode(unprefixedKey)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaskCursor.decode("pas un curseur")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TaskResponse task(Long id, String title, int priority) {
+        return new TaskResponse(id, title, null, false, priority, CREATED_AT, CREATED_AT, null, 7L);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportLineReaderTest {
+
+    @Test
+    void splitsQuotedFieldsWithSeparatorsDoubledQuotesAndNewlines() throws IOException {
+        ImportLineReader reader = reader("a,\"b,c\",\"dit \"\"oui\"\"\"\r\n\"deux\nlignes\",,x\n", 100);
+
+        assertThat(reader.readCsvRecord()).containsExactly("a", "b,c", "dit \"oui\"");
+        assertThat(reader.readCsvRecord()).containsExactly("deux\nlignes", "", "x");
+        assertThat(reader.getLineNumber()).isEqualTo(3);
+        assertThat(reader.readCsvRecord()).isNull();
+    }
+
+    @Test
+    void unclosedQuoteIsRejected() {
+        ImportLineReader reader = reader("a,\"b\nc\n", 100);
+
+        assertThatThrownBy(reader::readCsvRecord)
+                .isInstanceOf(ImportLineReader.InvalidLineException.class)
+                .hasMessageContaining("Guillemet non fermé");
+    }
+
+    @Test
+    void tooLongLineIsRejectedAndReadingResumesOnNextLine() throws IOException {
+        ImportLineReader reader = reader("court\n" + "x".repeat(11) + "\nsuite", 10);
+
+        assertThat(reader.readLine()).isEqualTo("court");
+        assertThatThrownBy(reader::readLine).isInstanceOf(ImportLineReader.InvalidLineException.class);
+        assertThat(reader.getLineNumber()).isEqualTo(2);
+        assertThat(reader.readLine()).isEqualTo("suite");
+        assertThat(reader.readLine()).isNull();
+    }
+
+    @Test
+    void lineAtMaximumLengthIsAccepted() throws IOException {
+        assertThat(reader("x".repeat(10) + "\n", 10).readLine()).hasSize(10);
+    }
+
+    @Test
+    void quotedRecordOverSeveralLinesIsCappedAsAWhole() {
+        ImportLineReader reader = reader("\"123456\n123456\"\n", 10);
+
+        assertThatThrownBy(reader::readCsvRecord).isInstanceOf(ImportLineReader.InvalidLineException.class)
+                .hasMessageContaining("trop longue");
+    }
+
+    private static ImportLineReader reader(String content, int maxLength) {
+        return new ImportLineReader(new StringReader(content), maxLength);
+    }
+}
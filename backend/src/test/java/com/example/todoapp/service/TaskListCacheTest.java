@@ -0,0 +1,66 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskListCacheTest {
+
+    private static final Long USER_ID = 7L;
+
+    private final TaskListCache cache = new TaskListCache(1000, 300, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadedListIsServedUntilAnEventInvalidatesIt() {
+        assertThat(cache.get(USER_ID, () -> load("v1")).etag()).isEqualTo("v1");
+        assertThat(cache.get(USER_ID, () -> load("v2")).etag()).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+
+        cache.afterCommit(TaskEvent.created(task(USER_ID)));
+
+        assertThat(cache.get(USER_ID, () -> load("v2")).etag()).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void listLoadedDuringAnInvalidationIsNotKept() {
+        TaskListCache.CachedList stale = cache.get(USER_ID, () -> {
+            cache.beforeCommit(TaskEvent.created(task(USER_ID))); // écriture committée pendant la lecture
+            return load("avant");
+        });
+
+        assertThat(stale.etag()).isEqualTo("avant");
+        assertThat(cache.get(USER_ID, () -> load("après")).etag()).isEqualTo("après");
+        assertThat(cache.get(USER_ID, () -> load("encore")).etag()).isEqualTo("après");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void eventOnlyInvalidatesItsOwner() {
+        cache.get(USER_ID, () -> load("v1"));
+        cache.get(8L, () -> load("autre"));
+
+        cache.afterCommit(TaskEvent.created(task(8L)));
+
+        assertThat(cache.get(USER_ID, () -> load("v2")).etag()).isEqualTo("v1");
+        assertThat(cache.get(8L, () -> load("autre v2")).etag()).isEqualTo("autre v2");
+    }
+
+    private TaskListCache.CachedList load(String etag) {
+        loads.incrementAndGet();
+        return new TaskListCache.CachedList(etag, List.of());
+    }
+
+    private static TaskResponse task(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new TaskResponse(1L, "Tâche", null, false, 1, now, now, null, userId);
+    }
+}
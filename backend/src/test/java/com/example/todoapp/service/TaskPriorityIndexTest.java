@@ -0,0 +1,113 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskPriorityIndexTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private final TaskPriorityIndex index = new TaskPriorityIndex(1000, 300, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void openTasksAreOrderedByPriorityThenCreationThenId() {
+        List<TaskResponse> open = List.of(
+                task(1L, 2, T0, T0, false),
+                task(2L, 1, T0.plusHours(1), T0, false),
+                task(3L, 1, T0, T0, false),
+                task(4L, 1, T0, T0, false));
+
+        assertThat(ids(index.next(USER_ID, 10, () -> load(open)))).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(ids(index.next(USER_ID, 2, () -> load(open)))).containsExactly(3L, 4L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void eventsAreAppliedWithoutReloading() {
+        index.next(USER_ID, 10, () -> load(List.of(task(1L, 2, T0, T0, false), task(2L, 3, T0, T0, false))));
+
+        index.onTaskEvent(TaskEvent.created(task(3L, 1, T0.plusHours(1), T0.plusHours(1), false)));
+        assertThat(ids(next())).containsExactly(3L, 1L, 2L);
+
+        // Priorité modifiée : la tâche change de place
+        index.onTaskEvent(TaskEvent.updated(task(2L, 1, T0, T0.plusHours(2), false), null));
+        assertThat(ids(next())).containsExactly(2L, 3L, 1L);
+
+        // Terminée puis supprimée : retirée
+        index.onTaskEvent(TaskEvent.updated(task(3L, 1, T0.plusHours(1), T0.plusHours(3), true), null));
+        index.onTaskEvent(TaskEvent.deleted(task(1L, 2, T0, T0, false)));
+        assertThat(ids(next())).containsExactly(2L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void importedChunkIsAddedWithoutReloading() {
+        index.next(USER_ID, 10, () -> load(List.of(task(1L, 2, T0, T0, false))));
+
+        index.onTaskEvent(TaskEvent.resync(USER_ID,
+                List.of(task(2L, 1, T0.plusHours(1), T0.plusHours(1), false), task(3L, 3, T0, T0, false))));
+
+        assertThat(ids(next())).containsExactly(2L, 1L, 3L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void olderEventDoesNotOverwriteIndexedVersion() {
+        index.next(USER_ID, 10, () -> load(List.of(task(1L, 2, T0, T0.plusHours(2), false))));
+
+        index.onTaskEvent(TaskEvent.updated(task(1L, 1, T0, T0.plusHours(1), false), null));
+
+        assertThat(next()).singleElement().extracting(TaskResponse::getPriority).isEqualTo(2);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void reopenedTaskWithoutCreationDateReloadsTheIndex() {
+        index.next(USER_ID, 10, () -> load(List.of(task(1L, 2, T0, T0, false))));
+
+        index.onTaskEvent(TaskEvent.updated(task(2L, 1, null, T0.plusHours(1), false), null));
+        next();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void tasksLoadedDuringAnEventAreNotKept() {
+        index.next(USER_ID, 10, () -> {
+            index.onTaskEvent(TaskEvent.created(task(2L, 1, T0, T0, false))); // commit pendant la lecture
+            return load(List.of(task(1L, 2, T0, T0, false)));
+        });
+
+        next();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<TaskResponse> next() {
+        return index.next(USER_ID, 10, () -> load(List.of()));
+    }
+
+    private List<TaskResponse> load(List<TaskResponse> tasks) {
+        loads.incrementAndGet();
+        return tasks;
+    }
+
+    private static List<Long> ids(List<TaskResponse> tasks) {
+        return tasks.stream().map(TaskResponse::getId).toList();
+    }
+
+    private static TaskResponse task(Long id, int priority, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                     boolean completed) {
+        return new TaskResponse(id, "Tâche " + id, null, completed, priority, createdAt, updatedAt, null, USER_ID);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.payload.TaskEvent;
+import com.example.todoapp.payload.TaskResponse;
+import com.example.todoapp.payload.TaskStatsResponse;
+import com.example.todoapp.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskStatsTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskStats stats = new TaskStats(meterRegistry, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void emptyDatabase() {
+        ReflectionTestUtils.setField(stats, "taskRepository", taskRepository);
+        stats.snapshot(); // compteurs chargés : aucune tâche
+    }
+
+    @Test
+    void eventsAddAndRemoveTasks() {
+        TaskResponse open = task(1L, 1L, 1, false, T0);
+        stats.onTaskEvent(TaskEvent.created(open));
+        stats.onTaskEvent(TaskEvent.created(task(2L, 1L, 2, false, T0)));
+        stats.onTaskEvent(TaskEvent.created(task(3L, 2L, 1, false, T0)));
+
+        TaskResponse done = task(1L, 1L, 1, true, T0.plusMinutes(30));
+        stats.onTaskEvent(TaskEvent.updated(done, open));
+        stats.onTaskEvent(TaskEvent.deleted(task(3L, 2L, 1, false, T0)));
+
+        TaskStatsResponse snapshot = stats.snapshot();
+        assertThat(snapshot.getOpen()).isEqualTo(1);
+        assertThat(snapshot.getCompleted()).isEqualTo(1);
+        assertThat(snapshot.getByPriority()).extracting(TaskStatsResponse.PriorityCounts::getPriority,
+                        TaskStatsResponse.PriorityCounts::getOpen, TaskStatsResponse.PriorityCounts::getCompleted)
+                .containsExactly(tuple(1, 0L, 1L), tuple(2, 1L, 0L));
+        assertThat(snapshot.getUsersWithTasks()).isEqualTo(1);
+        assertThat(snapshot.getTasksPerUser()).containsEntry("1-9", 1L);
+        assertThat(snapshot.getTimeToComplete()).containsEntry("<1h", 1L);
+        assertThat(snapshot.getAverageTimeToCompleteSeconds()).isEqualTo(1800);
+        assertThat(stats.user(1L).getOpen()).isEqualTo(1);
+        assertThat(stats.user(1L).getCompleted()).isEqualTo(1);
+        assertThat(stats.user(2L).getOpen()).isZero();
+    }
+
+    @Test
+    void editAfterCompletionKeepsTimeToComplete() {
+        TaskResponse open = task(1L, 1L, 1, false, T0);
+        stats.onTaskEvent(TaskEvent.created(open));
+        TaskResponse done = task(1L, 1L, 1, true, T0.plusMinutes(30));
+        stats.onTaskEvent(TaskEvent.updated(done, open));
+
+        // Titre modifié trois jours plus tard : la date de complétion ne change pas
+        TaskResponse renamed = new TaskResponse(1L, "Renommée", null, true, 1, T0, T0.plusDays(3),
+                done.getCompletedAt(), 1L);
+        stats.onTaskEvent(TaskEvent.updated(renamed, done));
+
+        assertThat(stats.snapshot().getTimeToComplete()).containsEntry("<1h", 1L).containsEntry("<7d", 0L);
+        assertThat(stats.snapshot().getAverageTimeToCompleteSeconds()).isEqualTo(1800);
+    }
+
+    @Test
+    void importedChunkIsAddedAtOnce() {
+        stats.onTaskEvent(TaskEvent.resync(1L, List.of(task(1L, 1L, 1, false, T0), task(2L, 1L, 2, false, T0))));
+
+        assertThat(stats.snapshot().getOpen()).isEqualTo(2);
+        assertThat(stats.user(1L).getOpen()).isEqualTo(2);
+    }
+
+    @Test
+    void updateAndDeleteWithoutPreviousStateAreLeftToReconciliation() {
+        stats.onTaskEvent(TaskEvent.updated(task(1L, 1L, 1, true, T0), null));
+
+        assertThat(stats.snapshot().getTotal()).isZero();
+    }
+
+    @Test
+    void deletedUserIsSubtracted() {
+        stats.onTaskEvent(TaskEvent.created(task(1L, 1L, 1, false, T0)));
+        stats.onTaskEvent(TaskEvent.created(task(2L, 1L, 3, false, T0)));
+        stats.onTaskEvent(TaskEvent.created(task(3L, 2L, 1, false, T0)));
+        when(taskRepository.countByPriorityAndCompletedForUser(1L))
+                .thenReturn(List.of(priorityCount(1, false, 1), priorityCount(3, false, 1)));
+
+        stats.onUserDeleted(TaskEvent.userDeleted(1L)); // hors transaction : retiré tout de suite
+
+        TaskStatsResponse snapshot = stats.snapshot();
+        assertThat(snapshot.getOpen()).isEqualTo(1);
+        assertThat(snapshot.getByPriority()).singleElement()
+                .extracting(TaskStatsResponse.PriorityCounts::getPriority).isEqualTo(1);
+        assertThat(snapshot.getUsersWithTasks()).isEqualTo(1);
+        assertThat(stats.user(1L).getOpen()).isZero();
+    }
+
+    @Test
+    void driftIsCorrectedOnlyWhenSeenTwice() {
+        when(taskRepository.countByPriorityAndCompleted()).thenReturn(List.of(priorityCount(2, false, 1)));
+        when(taskRepository.countByUserIdAndCompleted()).thenReturn(List.of(userCount(5L, false, 1)));
+
+        stats.reconcile();
+        assertThat(stats.snapshot().getOpen()).isZero();
+        assertThat(reconciliations("drift")).isEqualTo(1);
+
+        stats.reconcile();
+        assertThat(stats.snapshot().getOpen()).isEqualTo(1);
+        assertThat(stats.user(5L).getOpen()).isEqualTo(1);
+        assertThat(reconciliations("corrected")).isEqualTo(1);
+
+        stats.reconcile();
+        assertThat(reconciliations("match")).isEqualTo(1);
+    }
+
+    private double reconciliations(String result) {
+        return meterRegistry.get("tasks.stats.reconciliations").tag("result", result).counter().count();
+    }
+
+    private static TaskResponse task(Long id, Long userId, int priority, boolean completed, LocalDateTime updatedAt) {
+        return new TaskResponse(id, "Tâche " + id, null, completed, priority, T0, updatedAt,
+                completed ? updatedAt : null, userId);
+    }
+
+    private static TaskRepository.PriorityCount priorityCount(int priority, boolean completed, long count) {
+        return new TaskRepository.PriorityCount() {
+            public int getPriority() { return priority; }
+            public boolean getCompleted() { return completed; }
+            public long getCount() { return count; }
+        };
+    }
+
+    private static TaskRepository.UserCompletedCount userCount(Long userId, boolean completed, long count) {
+        return new TaskRepository.UserCompletedCount() {
+            public Long getUserId() { return userId; }
+            public boolean getCompleted() { return completed; }
+            public long getCount() { return count; }
+        };
+    }
+}